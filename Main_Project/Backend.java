@@ -10,8 +10,10 @@
 ///////////////////////////////////////////////////////////////////////////////
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -23,10 +25,22 @@ public class Backend<T> implements BackendInterface {
     // GraphADT private field
     private final GraphADT<T, Double> graph;
 
+    // number of routes that the route cache holds, unless another is chosen
+    public static final int DEFAULT_ROUTE_CACHE_CAPACITY = 1024;
+
+    // the most recently found routes, so popular ones are not searched for again
+    private final RouteCache<String> routeCache;
+
     // Constructor
     public Backend(GraphADT<T, Double> graph) {
+        this(graph, DEFAULT_ROUTE_CACHE_CAPACITY);
+    }
+
+    // Constructor that also chooses how many routes to keep in the route cache
+    public Backend(GraphADT<T, Double> graph, int routeCacheCapacity) {
         this.graph = graph;
         // simply to store new graph info
+        this.routeCache = new RouteCache<>(routeCacheCapacity);
     }
 
     // NOW THEN, METHODS!
@@ -41,6 +55,35 @@ public class Backend<T> implements BackendInterface {
      */
     @Override
     public void loadGraphData(String filename) throws IOException {
+        clearGraphToLoad(filename);
+
+        // DotParser reads the file in one pass, creating a single String for
+        // each location no matter how many edges it appears in. Edges are
+        // still inserted one at a time, since only GraphADT is known here,
+        // and insertEdge keeps the weight of a repeated edge up to date
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(filename),
+                StandardCharsets.UTF_8)) {
+            DotParser parser = new DotParser(reader);
+            List<String> names = parser.getNames();
+            int insertedNodes = 0;
+            while (parser.nextEdge()) {
+                // insert any locations first seen on this line, in the order they appear
+                while (insertedNodes < names.size()) {
+                    graph.insertNode((T) names.get(insertedNodes++));
+                }
+                T node1 = (T) names.get(parser.getPredecessor());
+                T node2 = (T) names.get(parser.getSuccessor());
+                // both directions share one boxed weight
+                Double weight = parser.getSeconds();
+                graph.insertEdge(node1, node2, weight);
+                graph.insertEdge(node2, node1, weight);
+            }
+        }
+    }
+
+    // checks that filename names an existing dot file, and then clears the
+    // graph so that its contents can be loaded in place of any previous ones
+    private void clearGraphToLoad(String filename) throws IOException {
         if (!filename.endsWith(".dot")) {
             throw new IOException("File cannot end in an extension other than .dot");
             // ^Must be .dot file extension
@@ -55,31 +98,33 @@ public class Backend<T> implements BackendInterface {
         for (T node : graph.getAllNodes()) {
         	graph.removeNode(node);
         }
+    }
 
-        // Not a huge fan of using BufferedReader compared to other ways, but
-        // functionally works fine to process the .dot file and create the graph
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                // Removing semicolon and trimming the line
-                line = line.replace(";", "").trim();
-                String[] parts = line.split(" -> ");
-                if (parts.length >= 2) {
-                    String[] edgeAndWeight = parts[1].split("\\[seconds=");
-                    T node1 = (T) parts[0].replace("\"", "").trim();
-                    T node2 = (T) edgeAndWeight[0].replace("\"", "").trim();
-                    double weight = Double.parseDouble(edgeAndWeight[1].replace("]", "").trim());
-                    // now node and edge inserting, using all the data we gather
-                    // above from the .dot file
-                    graph.insertNode(node1);
-                    graph.insertNode(node2);
-                    graph.insertEdge(node1, node2, weight);
-                    graph.insertEdge(node2, node1, weight);
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    /**
+     * Loads graph data from a dot file exactly as loadGraphData does, but
+     * parses large files with up to parallelism threads at once, through a
+     * ParallelDotLoader. Every statement in the file must fit on one line.
+     * 
+     * @param filename    the path to a dot file to read graph data from
+     * @param parallelism the number of threads to parse the file with
+     * @throws IOException if there was any problem reading from this file
+     */
+    public void loadGraphDataInParallel(String filename, int parallelism) throws IOException {
+        clearGraphToLoad(filename);
+        // locations are always Strings, as they are in loadGraphData
+        ParallelDotLoader.load(filename, (GraphADT<String, Double>) graph, parallelism);
+    }
+
+    /**
+     * Returns the version of the graph data that this backend answers from,
+     * which is the version of its graph: loading graph data changes the graph
+     * (clearing it first, even when the same data is loaded again), so it
+     * increases the version just as any other change to the graph does.
+     * 
+     * @return the current version of the graph data
+     */
+    public long getGraphVersion() {
+        return graph.getVersion();
     }
 
     /**
@@ -107,27 +152,8 @@ public class Backend<T> implements BackendInterface {
      *         endLocation, or an empty list if no such path exists
      */
     public List<String> findLocationsOnShortestPath(String startLocation, String endLocation) {
-
-        // This part may be redundant, i'll add it in case, check for null inputs, but no exception toss
-        // since its unspecified...
-        if (!(graph.containsNode((T) startLocation) && graph.containsNode((T) endLocation))) {
-            return new ArrayList<>();
-        }
-
-        List<T> NodeDataOnPath = graph.shortestPathData((T) startLocation, (T) endLocation);
-        if (NodeDataOnPath == null) {
-            return new ArrayList<>();
-            // path DNE
-        }
-
-        List<String> NodeDataString = new ArrayList<>();
-        for (T node : NodeDataOnPath) {
-            NodeDataString.add(node.toString());
-        }
-        return NodeDataString;
-        // Unless I'm missing something majorly important,
-        // than this method just needs use shortestPathData function alongside some
-        // if statements and check for any null inputs, then return the gathered list of location
+        // the route may be cached, so callers get a copy of their own to change
+        return new ArrayList<>(findRouteOnShortestPath(startLocation, endLocation).getNodes());
     }
 
     /**
@@ -142,30 +168,134 @@ public class Backend<T> implements BackendInterface {
      *         no such path exists
      */
     public List<Double> findTimesOnShortestPath(String startLocation, String endLocation) {
+        // the route may be cached, so callers get a copy of their own to change
+        return new ArrayList<>(findRouteOnShortestPath(startLocation, endLocation).getLegWeights());
+    }
+
+    /**
+     * Return the locations along the shortest path from startLocation to
+     * endLocation, the walking times between each two of them, and the total
+     * walking time, all found by a single shortest path search.
+     * 
+     * @param startLocation the start location of the path
+     * @param endLocation   the end location of the path
+     * @return the locations, walking times, and total walking time along the
+     *         shortest path, or an empty RouteResult if no such path exists
+     */
+    public RouteResult<String> findRouteOnShortestPath(String startLocation, String endLocation) {
+
+        // routes asked for recently are kept, for as long as the graph stays unchanged
+        long graphVersion = graph.getVersion();
+        RouteResult<String> cachedRoute = routeCache.get(startLocation, endLocation, graphVersion);
+        if (cachedRoute != null) {
+            return cachedRoute;
+        }
+        RouteResult<String> route = searchRoute(startLocation, endLocation);
+        routeCache.put(startLocation, endLocation, graphVersion, route);
+        return route;
+    }
+
+    // searches the graph for the shortest route from startLocation to endLocation
+    private RouteResult<String> searchRoute(String startLocation, String endLocation) {
 
         // This part may be redundant, i'll add it in case, check for null inputs, but no exception toss
         // since its unspecified...
         if (!(graph.containsNode((T) startLocation) && graph.containsNode((T) endLocation))) {
-            return new ArrayList<>();
+            return new RouteResult<>();
         }
 
-        // now store the path
-        List<String> path = findLocationsOnShortestPath(startLocation, endLocation);
+        // One search gives the path, the time of every leg and the total time
+        RouteResult<T> route;
+        try {
+            route = graph.shortestPathRoute((T) startLocation, (T) endLocation);
+        } catch (NoSuchElementException e) {
+            return new RouteResult<>();
+            // path DNE
+        }
 
-        // check if that path is empty
-        if (path.isEmpty()) {
-            return new ArrayList<>();
+        List<String> NodeDataString = new ArrayList<>();
+        for (T node : route.getNodes()) {
+            NodeDataString.add(node.toString());
         }
+        return new RouteResult<>(NodeDataString, route.getLegWeights(), route.getTotalCost());
+    }
 
-        // Now we are going to want to make a list of the times in the path
-        // index through every edge size and find the largest, we use a for loop to do so
-        List<Double> travelTimes = new ArrayList<>();
-        for (int i = 0; i < path.size() - 1; i++) {
-            T from = (T) path.get(i);
-            T to = (T) path.get(i + 1);
-            travelTimes.add(graph.getEdge(from, to));
+    /**
+     * Returns the walking times in seconds along the shortest paths from each
+     * of the sources to each of the targets, with one row per source and one
+     * column per target. Unlike calling findTimesOnShortestPath for every
+     * pair, this runs at most one search per source (or for a contraction
+     * hierarchy, one per source and one per target), and spreads those
+     * searches over every available processor.
+     * 
+     * @param sources the locations to start the paths at
+     * @param targets the locations to end the paths at
+     * @return matrix[i][j] is the walking time from sources[i] to targets[j],
+     *         or infinity if there is no path between them
+     * @throws NoSuchElementException if any of the locations does not exist
+     */
+    public double[][] computeTravelTimeMatrix(List<String> sources, List<String> targets)
+            throws NoSuchElementException {
+        return computeTravelTimeMatrix(sources, targets, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Returns the walking times in seconds along the shortest paths from each
+     * of the sources to each of the targets, exactly as the method above does,
+     * but with parallelism threads sharing the searches.
+     * 
+     * @param sources     the locations to start the paths at
+     * @param targets     the locations to end the paths at
+     * @param parallelism the number of threads to search with
+     * @return matrix[i][j] is the walking time from sources[i] to targets[j],
+     *         or infinity if there is no path between them
+     * @throws NoSuchElementException   if any of the locations does not exist
+     * @throws IllegalArgumentException if parallelism is less than one
+     */
+    public double[][] computeTravelTimeMatrix(List<String> sources, List<String> targets,
+            int parallelism) throws NoSuchElementException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("A travel time matrix needs at least one thread.");
+        }
+        for (List<String> locations : List.of(sources, targets)) {
+            for (String location : locations) {
+                if (!graph.containsNode((T) location)) {
+                    throw new NoSuchElementException("Location DNE: " + location);
+                }
+            }
         }
-        return travelTimes;// This should be all the times for travel times between nodes
+
+        // compact graphs search only as far as the targets, or read a table
+        if (graph instanceof CompactGraph) {
+            return ((CompactGraph<T>) graph).shortestPathCostMatrix((List<T>) sources,
+                    (List<T>) targets, parallelism);
+        }
+        // any other graph finds the time to every location reachable from each source
+        double[][] matrix = new double[sources.size()][];
+        CompactGraph.forEachInParallel(sources.size(), parallelism, "compute a travel time matrix",
+                i -> {
+                    MapADT<T, Double> costs = graph.shortestPathCostsWithin((T) sources.get(i),
+                            Double.POSITIVE_INFINITY);
+                    double[] row = new double[targets.size()];
+                    for (int j = 0; j < row.length; j++) {
+                        T target = (T) targets.get(j);
+                        row[j] = costs.containsKey(target) ? costs.get(target) : Double.POSITIVE_INFINITY;
+                    }
+                    matrix[i] = row;
+                });
+        return matrix;
+    }
+
+    /**
+     * Returns the cache of routes found by findRouteOnShortestPath (which the
+     * other shortest path methods also use), along with its hit, miss, and
+     * eviction counts. Cached routes are found again after any change to the
+     * graph, including loading new graph data.
+     * 
+     * @return the route cache of this backend
+     */
+    public RouteCache<String> getRouteCache() {
+        return routeCache;
     }
 
     /**
@@ -186,15 +316,16 @@ public class Backend<T> implements BackendInterface {
             throw new NoSuchElementException("Start location DNE!");
         }
 
+        // One search from the start finds the cost to every location within travelTime
+        MapADT<T, Double> costs = graph.shortestPathCostsWithin((T) startLocation, travelTime);
+
         // New string array to store the reachable destinations
         List<String> withinReachLocations = new ArrayList<>();
 
-        // For loop, go through all nodes
+        // For loop, go through all nodes, so that locations keep the graph's order
         for (T location : graph.getAllNodes()) {
-            // whats the cost/weight of the edge to the node? Store and compare if it's less
-            // than the travelTime variable!
-            double cost = graph.shortestPathCost((T) startLocation, location);
-            if (cost <= travelTime) {
+            // the search only returns locations within travelTime, so just check membership
+            if (costs.containsKey(location)) {
                 withinReachLocations.add(location.toString());
                 // add it to the list if it has passed so far
             }
@@ -24,6 +24,15 @@ public interface BackendInterface {
    */
   public void loadGraphData(String filename) throws IOException;
 
+  /**
+   * Returns the version of the graph data that this backend answers from,
+   * which increases whenever that data changes: when graph data is loaded,
+   * and when any node or edge is inserted, removed, or reweighted.  Answers
+   * found in one version stay the same for as long as the version does.
+   * @return the current version of the graph data
+   */
+  public long getGraphVersion();
+
   /**
    * Returns a list of all locations (node data) available in the graph.
    * @return list of all location names
@@ -51,7 +60,53 @@ public interface BackendInterface {
    *         list if no such path exists
    */
   public List<Double> findTimesOnShortestPath(String startLocation, String endLocation);
+
+  /**
+   * Return the shortest path from startLocation to endLocation as a single
+   * RouteResult, holding the locations along that path, the walking times in
+   * seconds between each two of them, and the total walking time.  This is
+   * computed by one shortest path search, so callers that need more than one
+   * of these should prefer it over the separate methods above.
+   * @param startLocation the start location of the path
+   * @param endLocation the end location of the path
+   * @return the locations, walking times, and total walking time along the
+   *         shortest path, or an empty RouteResult if no such path exists
+   */
+  public RouteResult<String> findRouteOnShortestPath(String startLocation, String endLocation);
     
+  /**
+   * Returns the walking times in seconds along the shortest paths from each
+   * of the sources to each of the targets, as a matrix with one row per
+   * source and one column per target.  This is computed by at most one
+   * search per source rather than one per pair, so callers that need many
+   * walking times between two groups of locations should prefer it over
+   * calling findTimesOnShortestPath for every pair.
+   * @param sources the locations to start the paths at
+   * @param targets the locations to end the paths at
+   * @return matrix[i][j] is the walking time from sources[i] to targets[j],
+   *         or infinity if there is no path between them
+   * @throws NoSuchElementException if any of the locations does not exist
+   */
+  public double[][] computeTravelTimeMatrix(List<String> sources, List<String> targets)
+      throws NoSuchElementException;
+
+  /**
+   * Returns the walking times in seconds along the shortest paths from each
+   * of the sources to each of the targets, exactly as the method above does,
+   * but searching on at most parallelism threads.  A caller that may only
+   * use part of the machine, such as one request to a server, should pass
+   * the number of threads it is allowed.
+   * @param sources the locations to start the paths at
+   * @param targets the locations to end the paths at
+   * @param parallelism the number of threads to search with
+   * @return matrix[i][j] is the walking time from sources[i] to targets[j],
+   *         or infinity if there is no path between them
+   * @throws NoSuchElementException if any of the locations does not exist
+   * @throws IllegalArgumentException if parallelism is less than one
+   */
+  public double[][] computeTravelTimeMatrix(List<String> sources, List<String> targets,
+      int parallelism) throws NoSuchElementException;
+
   /**
    * Returns the list of locations that can be reached when starting from the 
    * provided startLocation, and travelling a maximum of travelTime seconds.
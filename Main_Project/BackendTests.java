@@ -82,5 +82,27 @@ public class BackendTests {
                 "Atmospheric, Oceanic and Space Sciences"), reachable);
     }
 
-}
+    /**
+     * Test that the graph version increases whenever graph data is loaded,
+     * even the same data again, and whenever an edge changes, and otherwise
+     * stays the same.
+     */
+    @Test
+    public void testGraphVersion() throws IOException {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        Backend<String> backend = new Backend<>(graph);
+        long empty = backend.getGraphVersion();
+        backend.loadGraphData("campus.dot");
+        long loaded = backend.getGraphVersion();
+        assertTrue(loaded > empty);
 
+        backend.findRouteOnShortestPath("Bascom Hall", "Van Hise Hall");
+        assertEquals(loaded, backend.getGraphVersion());
+        backend.loadGraphData("campus.dot");
+        long reloaded = backend.getGraphVersion();
+        assertTrue(reloaded > loaded);
+        graph.insertEdge("Bascom Hall", "Van Hise Hall", 1.0);
+        assertTrue(backend.getGraphVersion() > reloaded);
+    }
+
+}
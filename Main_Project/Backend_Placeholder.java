@@ -24,6 +24,10 @@ public class Backend_Placeholder implements BackendInterface {
     graph.insertNode("Mosse Humanities Building");
   }
 
+  public long getGraphVersion() {
+    return graph.getVersion();
+  }
+
   public List<String> getListOfAllLocations() {
     return graph.getAllNodes();
   }
@@ -40,6 +44,32 @@ public class Backend_Placeholder implements BackendInterface {
     return times;
   }
     
+  // combines the two placeholder methods above, totalling the times
+  public RouteResult<String> findRouteOnShortestPath(String startLocation, String endLocation) {
+    List<Double> times = findTimesOnShortestPath(startLocation,endLocation);
+    double total = 0;
+    for(double time : times) total += time;
+    return new RouteResult<>(findLocationsOnShortestPath(startLocation,endLocation),times,total);
+  }
+
+  // returns the placeholder walking time of each pair's last leg
+  public double[][] computeTravelTimeMatrix(List<String> sources, List<String> targets) throws NoSuchElementException {
+    double[][] matrix = new double[sources.size()][targets.size()];
+    for(int i=0;i<sources.size();i++)
+      for(int j=0;j<targets.size();j++) {
+        List<Double> times = findTimesOnShortestPath(sources.get(i),targets.get(j));
+        matrix[i][j] = times.get(times.size()-1);
+      }
+    return matrix;
+  }
+
+  // always searches on the calling thread, whatever the parallelism
+  public double[][] computeTravelTimeMatrix(List<String> sources, List<String> targets, int parallelism) throws NoSuchElementException {
+    if(parallelism < 1)
+      throw new IllegalArgumentException("A travel time matrix needs at least one thread.");
+    return computeTravelTimeMatrix(sources,targets);
+  }
+
   // always returns entire list of locations
   public List<String> getReachableFromWithin(String startLocation, double travelTime) throws NoSuchElementException {
     return graph.getAllNodes();
@@ -36,6 +36,8 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
     }
 
     protected int edgeCount = 0;
+    // increased by every change to the nodes or edges of this graph
+    protected long version = 0;
     // Edges can be retrieved through the edge lists in either connected node
 
     /**
@@ -48,6 +50,21 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
         this.nodes = map;
     }
 
+    /**
+     * Creates a new, empty map of the same kind as the one this graph stores
+     * its nodes in: a ProbingHashtableMap when the graph was constructed with
+     * one, or a HashtableMap otherwise. Maps that are used while searching
+     * the graph are created through this method, so that the choice of map
+     * made when constructing the graph applies to those searches as well.
+     *
+     * @return a new empty map
+     */
+    protected <KeyType, ValueType> MapADT<KeyType, ValueType> createMap() {
+        if (nodes instanceof ProbingHashtableMap)
+            return new ProbingHashtableMap<>();
+        return new HashtableMap<>();
+    }
+
     /**
      * Insert a new node into the graph.
      * 
@@ -60,6 +77,7 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
         if (nodes.containsKey(data))
             return false; // throws NPE when data's null
         nodes.put(data, new Node(data));
+        version++;
         return true;
     }
 
@@ -77,12 +95,16 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
         if (!nodes.containsKey(data))
             return false; // throws NPE when data==null
         Node oldNode = nodes.remove(data);
+        version++;
         // remove all edges entering neighboring nodes from this one
         for (Edge edge : oldNode.edgesLeaving)
             edge.successor.edgesEntering.remove(edge);
+        this.edgeCount -= oldNode.edgesLeaving.size();
         // remove all edges leaving neighboring nodes toward this one
+        // (any self loop was already removed from edgesEntering above)
         for (Edge edge : oldNode.edgesEntering)
             edge.predecessor.edgesLeaving.remove(edge);
+        this.edgeCount -= oldNode.edgesEntering.size();
         return true;
     }
 
@@ -132,18 +154,22 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
         Node succNode = nodes.get(succ);
         if (predNode == null || succNode == null)
             return false;
-        try {
-            // when an edge alread exists within the graph, update its weight
-            Edge existingEdge = getEdgeHelper(pred, succ);
-            existingEdge.data = weight;
-        } catch (NoSuchElementException e) {
-            // otherwise create a new edges
-            Edge newEdge = new Edge(weight, predNode, succNode);
-            this.edgeCount++;
-            // and insert it into each of its adjacent nodes' respective lists
-            predNode.edgesLeaving.add(newEdge);
-            succNode.edgesEntering.add(newEdge);
-        }
+        // when an edge already exists within the graph, update its weight
+        // (searched for directly, since building the NSE that getEdgeHelper
+        // throws for each new edge would dominate the cost of loading a graph)
+        for (Edge edge : predNode.edgesLeaving)
+            if (edge.successor == succNode) {
+                edge.data = weight;
+                version++;
+                return true;
+            }
+        // otherwise create a new edges
+        Edge newEdge = new Edge(weight, predNode, succNode);
+        this.edgeCount++;
+        version++;
+        // and insert it into each of its adjacent nodes' respective lists
+        predNode.edgesLeaving.add(newEdge);
+        succNode.edgesEntering.add(newEdge);
         return true;
     }
 
@@ -164,6 +190,7 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
             oldEdge.successor.edgesEntering.remove(oldEdge);
             // and decrement the edge count before removing
             this.edgeCount--;
+            version++;
             return true;
         } catch (NoSuchElementException e) {
             // when no such edge exists, return false instead
@@ -221,5 +248,46 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
         return this.edgeCount;
     }
 
+    /**
+     * Returns a number that changes whenever a node or edge is inserted into or
+     * removed from this graph, or the weight of an edge changes.
+     *
+     * @return the current version of this graph
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Creates an immutable CompactGraph snapshot of this graph's current nodes
+     * and edges. Node ids in the snapshot follow the order of getAllNodes(),
+     * and each edge weight is stored as its doubleValue(). Later changes to
+     * this graph are not reflected in the snapshot.
+     *
+     * @return a read-only compact copy of this graph
+     */
+    public CompactGraph<NodeType> freeze() {
+        List<NodeType> nodeData = nodes.getKeys();
+        MapADT<NodeType, Integer> nodeIds = createMap();
+        for (int id = 0; id < nodeData.size(); id++)
+            nodeIds.put(nodeData.get(id), id);
+
+        // lay out the edges leaving each node one after another, in node order
+        int[] offsets = new int[nodeData.size() + 1];
+        int[] targets = new int[edgeCount];
+        double[] weights = new double[edgeCount];
+        int index = 0;
+        for (int id = 0; id < nodeData.size(); id++) {
+            offsets[id] = index;
+            for (Edge edge : nodes.get(nodeData.get(id)).edgesLeaving) {
+                targets[index] = nodeIds.get(edge.successor.data);
+                weights[index] = edge.data.doubleValue();
+                index++;
+            }
+        }
+        offsets[nodeData.size()] = index;
+        return new CompactGraph<>(nodeData, nodeIds, offsets, targets, weights);
+    }
+
 }
 
@@ -0,0 +1,532 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * This CompactGraph class is an immutable snapshot of a BaseGraph, created by
+ * BaseGraph.freeze(), that is laid out for fast read-only shortest path
+ * queries. Each node is identified by an int id (its index in nodeData), and
+ * the edges leaving every node are stored in compressed sparse row (CSR)
+ * form: the edges leaving node id are at indexes offsets[id] (inclusive)
+ * through offsets[id+1] (exclusive) of the targets and weights arrays. This
+ * avoids the object and pointer overhead of the linked edge lists and boxed
+ * weights that BaseGraph uses while a graph is being built.
+ *
+ * Since it cannot change, every method that would modify this graph throws
+ * an UnsupportedOperationException. And since each search keeps its state in
+ * a SearchState of its own, any number of threads may search it at once.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class CompactGraph<NodeType> implements GraphADT<NodeType, Double> {
+
+    // data stored in each node, indexed by node id
+    protected List<NodeType> nodeData;
+    // node ids can be retrieved from this map by their unique data
+    protected MapADT<NodeType, Integer> nodeIds;
+    // edges leaving node id are stored from offsets[id] to offsets[id+1]-1
+    protected int[] offsets;
+    // id of the successor node of each edge
+    protected int[] targets;
+    // weight of each edge
+    protected double[] weights;
+
+    // complete shortest path trees from recent sources, or null when trees
+    // are not kept (see setPathTreeBudget)
+    protected volatile PathTreeCache pathTrees = null;
+    // shortest path tree from every node, or null when no table was built
+    // (see buildDistanceTable)
+    protected volatile DistanceTable distanceTable = null;
+
+    // number of nodes that were settled by the most recent search; when
+    // several threads search at once, this is whichever search finished last
+    protected volatile int settledCount = 0;
+
+    // A SearchState holds everything that one search through this graph
+    // works with: the cost of the best path found to each node, the node and
+    // edge before it on that path, and the heap of nodes still to be settled.
+    // It is sized to the graph once per search, so searching allocates
+    // nothing per edge.
+    protected static class SearchState {
+        public double[] dist;
+        public int[] pred;
+        public int[] predEdge;
+        public IndexedMinHeap heap;
+        public int settledCount = 0;
+
+        public SearchState(int nodeCount) {
+            dist = new double[nodeCount];
+            pred = new int[nodeCount];
+            predEdge = new int[nodeCount];
+            heap = new IndexedMinHeap(nodeCount);
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            Arrays.fill(pred, -1);
+            Arrays.fill(predEdge, -1);
+        }
+    }
+
+    // A DistanceTable holds the complete shortest path tree from every node
+    // of a graph with nodeCount nodes. The tree from source is stored in row
+    // source of each array, at indexes source*nodeCount through
+    // (source+1)*nodeCount-1, with the same meaning as in a SearchState.
+    protected static class DistanceTable {
+        public final int nodeCount;
+        public final double[] dist;
+        public final int[] pred;
+        public final int[] predEdge;
+
+        public DistanceTable(int nodeCount) {
+            this.nodeCount = nodeCount;
+            dist = new double[nodeCount * nodeCount];
+            pred = new int[nodeCount * nodeCount];
+            predEdge = new int[nodeCount * nodeCount];
+        }
+    }
+
+    /**
+     * Creates a compact graph from its CSR arrays. These arrays are used
+     * directly rather than copied, so they must not be changed afterwards.
+     *
+     * @param nodeData data stored in each node, indexed by node id
+     * @param nodeIds  map from the data in each node to its node id
+     * @param offsets  index of the first edge leaving each node id, followed
+     *                 by the total number of edges
+     * @param targets  successor node id of each edge
+     * @param weights  weight of each edge
+     */
+    public CompactGraph(List<NodeType> nodeData, MapADT<NodeType, Integer> nodeIds,
+            int[] offsets, int[] targets, double[] weights) {
+        this.nodeData = nodeData;
+        this.nodeIds = nodeIds;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    // creates a new, empty map of the same kind as nodeIds
+    protected <KeyType, ValueType> MapADT<KeyType, ValueType> createMap() {
+        if (nodeIds instanceof ProbingHashtableMap)
+            return new ProbingHashtableMap<>();
+        return new HashtableMap<>();
+    }
+
+    // returns the id of the node containing data, or throws NSE when no node does
+    protected int idOf(NodeType data) {
+        if (!nodeIds.containsKey(data))
+            throw new NoSuchElementException("key " + data.toString() + " not in graph");
+        return nodeIds.get(data);
+    }
+
+    // returns the ids of the nodes containing each of data, in order
+    protected int[] idsOf(List<NodeType> data) {
+        int[] ids = new int[data.size()];
+        for (int i = 0; i < ids.length; i++)
+            ids[i] = idOf(data.get(i));
+        return ids;
+    }
+
+    @Override
+    public boolean insertNode(NodeType data) {
+        throw new UnsupportedOperationException("CompactGraph cannot be modified");
+    }
+
+    @Override
+    public boolean removeNode(NodeType data) {
+        throw new UnsupportedOperationException("CompactGraph cannot be modified");
+    }
+
+    @Override
+    public boolean containsNode(NodeType data) {
+        return nodeIds.containsKey(data);
+    }
+
+    @Override
+    public List<NodeType> getAllNodes() {
+        return new ArrayList<>(nodeData);
+    }
+
+    @Override
+    public int getNodeCount() {
+        return nodeData.size();
+    }
+
+    @Override
+    public boolean insertEdge(NodeType pred, NodeType succ, Double weight) {
+        throw new UnsupportedOperationException("CompactGraph cannot be modified");
+    }
+
+    @Override
+    public boolean removeEdge(NodeType pred, NodeType succ) {
+        throw new UnsupportedOperationException("CompactGraph cannot be modified");
+    }
+
+    @Override
+    public boolean containsEdge(NodeType pred, NodeType succ) {
+        if (!nodeIds.containsKey(pred) || !nodeIds.containsKey(succ))
+            return false;
+        return edgeIndex(nodeIds.get(pred), nodeIds.get(succ)) >= 0;
+    }
+
+    @Override
+    public Double getEdge(NodeType pred, NodeType succ) {
+        int index = edgeIndex(idOf(pred), idOf(succ));
+        if (index < 0)
+            throw new NoSuchElementException("No edge from " + pred.toString() + " to " +
+                    succ.toString());
+        return weights[index];
+    }
+
+    // returns the index of the edge from node id pred to node id succ, or -1
+    protected int edgeIndex(int pred, int succ) {
+        for (int i = offsets[pred]; i < offsets[pred + 1]; i++)
+            if (targets[i] == succ)
+                return i;
+        return -1;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    @Override
+    public long getVersion() {
+        return 0; // a CompactGraph never changes
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from the node with id source, keeping the
+     * nodes that are still to be settled in an IndexedMinHeap. When a cheaper
+     * path to a node in the heap is found, that node's priority is decreased
+     * in place, so the heap never holds more than one entry per node. In the
+     * returned state, dist holds the cost of the shortest path to each
+     * settled node, and pred and predEdge hold the node and edge before it
+     * on that path (or -1 for the source). The search stops once the node
+     * with id target has been settled, or once every path left costs more
+     * than maxCost. When it stops early at target, the state may also hold
+     * tentative values for nodes that were reached but not settled.
+     *
+     * @param source  id of the node to search from
+     * @param target  id of the node to stop at, or -1 to search within maxCost
+     * @param maxCost the largest path cost that the search should expand
+     * @return the state that the search finished with
+     */
+    protected SearchState search(int source, int target, double maxCost) {
+        SearchState state = new SearchState(nodeData.size());
+        double[] dist = state.dist;
+        IndexedMinHeap heap = state.heap;
+        dist[source] = 0;
+        heap.insert(source, 0);
+        while (!heap.isEmpty()) {
+            int node = heap.removeMin();
+            state.settledCount++;
+            if (node == target)
+                break;
+            relaxEdges(state, node, maxCost);
+        }
+        settledCount = state.settledCount;
+        return state;
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from the node with id source just as search
+     * does, but stops once every node whose id is in sinks has been settled,
+     * or once every node that can be reached has been.
+     *
+     * @param source id of the node to search from
+     * @param sinks  ids of the nodes to stop after, in any order
+     * @return the state that the search finished with
+     */
+    protected SearchState searchToAll(int source, int[] sinks) {
+        SearchState state = new SearchState(nodeData.size());
+        boolean[] isSink = new boolean[nodeData.size()];
+        int remaining = 0;
+        for (int sink : sinks)
+            if (!isSink[sink]) {
+                isSink[sink] = true;
+                remaining++;
+            }
+        state.dist[source] = 0;
+        state.heap.insert(source, 0);
+        while (remaining > 0 && !state.heap.isEmpty()) {
+            int node = state.heap.removeMin();
+            state.settledCount++;
+            if (isSink[node])
+                remaining--;
+            relaxEdges(state, node, Double.POSITIVE_INFINITY);
+        }
+        settledCount = state.settledCount;
+        return state;
+    }
+
+    // relaxes the edges leaving node, which was just settled by the search
+    // with this state, to successors that are reached within maxCost
+    private void relaxEdges(SearchState state, int node, double maxCost) {
+        double[] dist = state.dist;
+        IndexedMinHeap heap = state.heap;
+        double nodeCost = dist[node];
+        for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+            int succ = targets[i];
+            double cost = nodeCost + weights[i];
+            // settled nodes already have the lowest cost, so never pass this
+            if (cost < dist[succ] && cost <= maxCost) {
+                if (heap.contains(succ))
+                    heap.decreaseKey(succ, cost);
+                else
+                    heap.insert(succ, cost);
+                dist[succ] = cost;
+                state.pred[succ] = node;
+                state.predEdge[succ] = i;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of nodes that were settled by the most recent search
+     * through this graph.
+     *
+     * @return the number of nodes settled by the most recent search
+     */
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    /**
+     * Makes this graph keep the complete shortest path trees found from
+     * recent start nodes, within a budget of bytes (each tree takes 16 bytes
+     * per node). Every shortest path query from a start node without a kept
+     * tree then searches the whole graph from it, rather than stopping at the
+     * end node, and keeps the resulting tree. Later paths and costs from that
+     * start node to any end node are read from the tree without searching,
+     * and so are the nodes reachable from it within any cost.
+     *
+     * @param budgetBytes the number of bytes that kept trees may take
+     *                    together, or 0 to stop keeping trees
+     */
+    public void setPathTreeBudget(long budgetBytes) {
+        pathTrees = budgetBytes == 0 ? null : new PathTreeCache(budgetBytes);
+    }
+
+    /**
+     * Returns the cache of shortest path trees that this graph keeps, along
+     * with its hit, miss, and eviction counts.
+     *
+     * @return the cache of trees, or null if this graph keeps none
+     */
+    public PathTreeCache getPathTreeCache() {
+        return pathTrees;
+    }
+
+    /**
+     * Precomputes the shortest paths between all pairs of nodes, by searching
+     * the whole graph once from every node, with parallelism threads sharing
+     * these searches. Afterwards, every shortest path, path cost, and set of
+     * nodes reachable within a cost is read from this table rather than
+     * searched for. The table takes 16 bytes per pair of nodes, so it is only
+     * built for graphs of at most maxNodes nodes; larger graphs are left as
+     * they are, and keep answering every query by searching.
+     *
+     * @param maxNodes    the largest number of nodes to build a table for
+     * @param parallelism the number of threads to search with
+     * @return true if the table was built, or false if this graph has more
+     *         than maxNodes nodes
+     * @throws IllegalArgumentException if parallelism is less than one
+     */
+    public boolean buildDistanceTable(int maxNodes, int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("A distance table needs at least one thread to build.");
+        int nodeCount = nodeData.size();
+        // rows are indexed by int, so the whole table must fit in one array
+        if (nodeCount > maxNodes || (long) nodeCount * nodeCount > Integer.MAX_VALUE - 8)
+            return false;
+        DistanceTable table = new DistanceTable(nodeCount);
+        // each search only writes its own row, so they need no locking
+        forEachInParallel(nodeCount, parallelism, "build a distance table", source -> {
+            SearchState tree = search(source, -1, Double.POSITIVE_INFINITY);
+            int row = source * nodeCount;
+            System.arraycopy(tree.dist, 0, table.dist, row, nodeCount);
+            System.arraycopy(tree.pred, 0, table.pred, row, nodeCount);
+            System.arraycopy(tree.predEdge, 0, table.predEdge, row, nodeCount);
+        });
+        distanceTable = table;
+        return true;
+    }
+
+    // runs action for every index from 0 to count-1, on parallelism threads
+    // of a pool of their own, and waits for all of them to finish; task
+    // describes what they do, for the exception thrown if any of them fails.
+    // A single thread is the calling one, without starting a pool
+    protected static void forEachInParallel(int count, int parallelism, String task,
+            IntConsumer action) {
+        if (parallelism == 1) {
+            for (int index = 0; index < count; index++)
+                action.accept(index);
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(action)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while trying to " + task, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not " + task, e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Returns whether this graph answers queries from a distance table built
+     * by buildDistanceTable.
+     *
+     * @return true if this graph has a distance table
+     */
+    public boolean hasDistanceTable() {
+        return distanceTable != null;
+    }
+
+    // returns a search state from source in which target has been settled:
+    // the kept tree from source, or a new complete tree from source that is
+    // then kept, or when no trees are kept, a search that stops at target
+    protected SearchState searchTo(int source, int target) {
+        PathTreeCache trees = pathTrees;
+        if (trees == null)
+            return search(source, target, Double.POSITIVE_INFINITY);
+        SearchState tree = trees.get(source);
+        if (tree == null) {
+            tree = search(source, -1, Double.POSITIVE_INFINITY);
+            tree.heap = null; // the heap is empty now, and not needed to read the tree
+            trees.put(source, tree);
+        }
+        return tree;
+    }
+
+    @Override
+    public List<NodeType> shortestPathData(NodeType start, NodeType end) {
+        return shortestPathRoute(start, end).getNodes();
+    }
+
+    @Override
+    public double shortestPathCost(NodeType start, NodeType end) {
+        int source = idOf(start);
+        int target = idOf(end);
+        DistanceTable table = distanceTable;
+        double cost = table != null ? table.dist[source * table.nodeCount + target]
+                : searchTo(source, target).dist[target];
+        if (cost == Double.POSITIVE_INFINITY)
+            throw new NoSuchElementException("There is no directed path from " + start + " to " + end);
+        return cost;
+    }
+
+    @Override
+    public RouteResult<NodeType> shortestPathRoute(NodeType start, NodeType end) {
+        int source = idOf(start);
+        int target = idOf(end);
+        DistanceTable table = distanceTable;
+        if (table != null)
+            return route(start, end, table.dist, table.pred, table.predEdge, source * table.nodeCount,
+                    source, target);
+        SearchState state = searchTo(source, target);
+        return route(start, end, state.dist, state.pred, state.predEdge, 0, source, target);
+    }
+
+    // builds the route from source to target out of the shortest path tree
+    // from source, stored in the given arrays from index row onwards
+    private RouteResult<NodeType> route(NodeType start, NodeType end, double[] dist, int[] pred,
+            int[] predEdge, int row, int source, int target) {
+        if (dist[row + target] == Double.POSITIVE_INFINITY)
+            throw new NoSuchElementException("There is no directed path from " + start + " to " + end);
+
+        // walk back from the target through its predecessors
+        List<NodeType> path = new ArrayList<>();
+        List<Double> legWeights = new ArrayList<>();
+        for (int node = target; node != source; node = pred[row + node]) {
+            path.add(nodeData.get(node));
+            legWeights.add(weights[predEdge[row + node]]);
+        }
+        path.add(nodeData.get(source));
+        Collections.reverse(path);
+        Collections.reverse(legWeights);
+        return new RouteResult<>(path, legWeights, dist[row + target]);
+    }
+
+    @Override
+    public MapADT<NodeType, Double> shortestPathCostsWithin(NodeType start, double maxCost) {
+        int source = idOf(start);
+        int nodeCount = nodeData.size();
+        double[] dist;
+        int row = 0;
+        // a table or kept tree holds the costs of all nodes, those within maxCost included
+        DistanceTable table = distanceTable;
+        PathTreeCache trees = pathTrees;
+        SearchState tree = table == null && trees != null ? trees.get(source) : null;
+        if (table != null) {
+            dist = table.dist;
+            row = source * nodeCount;
+        } else {
+            dist = tree != null ? tree.dist : search(source, -1, maxCost).dist;
+        }
+        // unreachable nodes cost infinity, which is left out even when maxCost is
+        MapADT<NodeType, Double> costs = createMap();
+        for (int node = 0; node < nodeCount; node++)
+            if (dist[row + node] <= maxCost && dist[row + node] != Double.POSITIVE_INFINITY)
+                costs.put(nodeData.get(node), dist[row + node]);
+        return costs;
+    }
+
+    /**
+     * Returns the cost of the shortest path from each of the start nodes to
+     * each of the end nodes, in a matrix with one row per start node and one
+     * column per end node, holding infinity where there is no such path. One
+     * search is run from each start node, which stops once every end node is
+     * settled, and parallelism threads share these searches. Rows from start
+     * nodes with a kept path tree, or all rows when there is a distance
+     * table, are read from those rather than searched for.
+     *
+     * @param starts      the data items in the starting nodes of the paths
+     * @param ends        the data items in the destination nodes of the paths
+     * @param parallelism the number of threads to search with
+     * @return matrix[i][j] is the cost of the shortest path from starts[i] to
+     *         ends[j]
+     * @throws NoSuchElementException   if any of the nodes cannot be found in
+     *                                  the graph
+     * @throws IllegalArgumentException if parallelism is less than one
+     */
+    public double[][] shortestPathCostMatrix(List<NodeType> starts, List<NodeType> ends,
+            int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("A cost matrix needs at least one thread to compute.");
+        int[] sources = idsOf(starts);
+        int[] sinks = idsOf(ends);
+        double[][] matrix = new double[sources.length][];
+        forEachInParallel(sources.length, parallelism, "compute a cost matrix",
+                i -> matrix[i] = costsTo(sources[i], sinks));
+        return matrix;
+    }
+
+    // returns the costs of the shortest paths from source to each of sinks
+    private double[] costsTo(int source, int[] sinks) {
+        double[] dist;
+        int row = 0;
+        DistanceTable table = distanceTable;
+        PathTreeCache trees = pathTrees;
+        SearchState tree = table == null && trees != null ? trees.get(source) : null;
+        if (table != null) {
+            dist = table.dist;
+            row = source * table.nodeCount;
+        } else {
+            dist = tree != null ? tree.dist : searchToAll(source, sinks).dist;
+        }
+        double[] costs = new double[sinks.length];
+        for (int j = 0; j < sinks.length; j++)
+            costs[j] = dist[row + sinks[j]];
+        return costs;
+    }
+}
@@ -0,0 +1,200 @@
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests that a CompactGraph frozen from a DijkstraGraph answers
+ * every query the same way as the graph it was frozen from.
+ */
+public class CompactGraphTests {
+
+    // loads campus.dot into a new DijkstraGraph
+    private static DijkstraGraph<String, Double> loadCampus() throws IOException {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        new Backend<String>(graph).loadGraphData("campus.dot");
+        return graph;
+    }
+
+    /**
+     * Test that the frozen graph has the same nodes (in the same order) and
+     * edges as the graph it was frozen from, and cannot be modified.
+     */
+    @Test
+    public void testFreeze() throws IOException {
+        DijkstraGraph<String, Double> graph = loadCampus();
+        CompactGraph<String> compact = graph.freeze();
+        Assertions.assertEquals(graph.getAllNodes(), compact.getAllNodes());
+        Assertions.assertEquals(graph.getNodeCount(), compact.getNodeCount());
+        Assertions.assertEquals(graph.getEdgeCount(), compact.getEdgeCount());
+        Assertions.assertEquals(graph.getEdge("Bascom Hall", "Van Vleck Hall"),
+                compact.getEdge("Bascom Hall", "Van Vleck Hall"));
+        Assertions.assertFalse(compact.containsEdge("Bascom Hall", "Union South"));
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> compact.insertNode("Union South"));
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> compact.removeEdge("Bascom Hall", "Van Vleck Hall"));
+    }
+
+    /**
+     * Test that shortest path costs between every pair of campus locations,
+     * and the routes and reachable locations from one of them, match those
+     * found in the graph that was frozen.
+     */
+    @Test
+    public void testShortestPathsMatch() throws IOException {
+        DijkstraGraph<String, Double> graph = loadCampus();
+        CompactGraph<String> compact = graph.freeze();
+        List<String> locations = graph.getAllNodes();
+        for (String start : locations)
+            for (String end : locations)
+                Assertions.assertEquals(graph.shortestPathCost(start, end),
+                        compact.shortestPathCost(start, end));
+
+        RouteResult<String> route = compact.shortestPathRoute("Noland Hall", "Van Hise Hall");
+        Assertions.assertEquals(graph.shortestPathData("Noland Hall", "Van Hise Hall"), route.getNodes());
+        Assertions.assertEquals(graph.shortestPathRoute("Noland Hall", "Van Hise Hall").getLegWeights(),
+                route.getLegWeights());
+
+        MapADT<String, Double> expected = graph.shortestPathCostsWithin("X01", 500);
+        MapADT<String, Double> actual = compact.shortestPathCostsWithin("X01", 500);
+        Assertions.assertEquals(expected.getSize(), actual.getSize());
+        for (String location : expected.getKeys())
+            Assertions.assertEquals(expected.get(location), actual.get(location));
+        Assertions.assertThrows(NoSuchElementException.class,
+                () -> compact.shortestPathCost("Nowhere", "X01"));
+    }
+
+    /**
+     * Test that shortest paths and reachable locations read from kept path
+     * trees match those found by searching, and that trees beyond the budget
+     * are evicted.
+     */
+    @Test
+    public void testPathTrees() throws IOException {
+        DijkstraGraph<String, Double> graph = loadCampus();
+        CompactGraph<String> searched = graph.freeze();
+        CompactGraph<String> compact = graph.freeze();
+        compact.setPathTreeBudget(3 * PathTreeCache.treeBytes(compact.getNodeCount()));
+        List<String> locations = compact.getAllNodes();
+        for (String start : locations.subList(0, 10))
+            for (String end : locations) {
+                Assertions.assertEquals(searched.shortestPathCost(start, end),
+                        compact.shortestPathCost(start, end));
+                Assertions.assertEquals(searched.shortestPathData(start, end),
+                        compact.shortestPathData(start, end));
+            }
+        PathTreeCache trees = compact.getPathTreeCache();
+        Assertions.assertEquals(3, trees.size());
+        Assertions.assertEquals(7, trees.getEvictions());
+        Assertions.assertEquals(10, trees.getMisses());
+
+        // the most recent start location's tree also answers reachability
+        String start = locations.get(9);
+        long hits = trees.getHits();
+        MapADT<String, Double> expected = searched.shortestPathCostsWithin(start, 300);
+        MapADT<String, Double> actual = compact.shortestPathCostsWithin(start, 300);
+        Assertions.assertEquals(hits + 1, trees.getHits());
+        Assertions.assertEquals(expected.getSize(), actual.getSize());
+        for (String location : expected.getKeys())
+            Assertions.assertEquals(expected.get(location), actual.get(location));
+
+        compact.setPathTreeBudget(0);
+        Assertions.assertNull(compact.getPathTreeCache());
+    }
+
+    /**
+     * Test that a CompactGraph answers every shortest path and reachability
+     * query from its distance table exactly as it would by searching, and
+     * that no table is built for graphs with more nodes than allowed.
+     */
+    @Test
+    public void testDistanceTable() throws IOException {
+        DijkstraGraph<String, Double> graph = loadCampus();
+        CompactGraph<String> searched = graph.freeze();
+        CompactGraph<String> compact = graph.freeze();
+        Assertions.assertFalse(compact.buildDistanceTable(compact.getNodeCount() - 1, 1));
+        Assertions.assertFalse(compact.hasDistanceTable());
+        Assertions.assertTrue(compact.buildDistanceTable(compact.getNodeCount(), 2));
+        Assertions.assertTrue(compact.hasDistanceTable());
+
+        List<String> locations = compact.getAllNodes();
+        for (String start : locations) {
+            for (String end : locations) {
+                Assertions.assertEquals(searched.shortestPathCost(start, end),
+                        compact.shortestPathCost(start, end));
+                RouteResult<String> expected = searched.shortestPathRoute(start, end);
+                RouteResult<String> actual = compact.shortestPathRoute(start, end);
+                Assertions.assertEquals(expected.getNodes(), actual.getNodes());
+                Assertions.assertEquals(expected.getLegWeights(), actual.getLegWeights());
+            }
+            MapADT<String, Double> expected = searched.shortestPathCostsWithin(start, 300);
+            MapADT<String, Double> actual = compact.shortestPathCostsWithin(start, 300);
+            Assertions.assertEquals(expected.getSize(), actual.getSize());
+            for (String location : expected.getKeys())
+                Assertions.assertEquals(expected.get(location), actual.get(location));
+        }
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> compact.buildDistanceTable(compact.getNodeCount(), 0));
+    }
+
+    /**
+     * Test that every entry of a cost matrix is the cost of the shortest path
+     * between its two nodes, whether it is searched for, read from kept path
+     * trees, or read from a distance table.
+     */
+    @Test
+    public void testCostMatrix() throws IOException {
+        DijkstraGraph<String, Double> graph = loadCampus();
+        CompactGraph<String> searched = graph.freeze();
+        CompactGraph<String> kept = graph.freeze();
+        kept.setPathTreeBudget(1L << 20);
+        CompactGraph<String> table = graph.freeze();
+        table.buildDistanceTable(table.getNodeCount(), 1);
+
+        List<String> locations = searched.getAllNodes();
+        List<String> starts = locations.subList(0, 10);
+        List<String> ends = List.of(locations.get(3), "Bascom Hall", locations.get(3));
+        kept.shortestPathCost(starts.get(0), "Bascom Hall");
+        for (CompactGraph<String> compact : List.of(searched, kept, table)) {
+            double[][] matrix = compact.shortestPathCostMatrix(starts, ends, 2);
+            Assertions.assertEquals(starts.size(), matrix.length);
+            for (int i = 0; i < starts.size(); i++) {
+                Assertions.assertEquals(ends.size(), matrix[i].length);
+                for (int j = 0; j < ends.size(); j++)
+                    Assertions.assertEquals(searched.shortestPathCost(starts.get(i), ends.get(j)),
+                            matrix[i][j]);
+            }
+        }
+        Assertions.assertThrows(NoSuchElementException.class,
+                () -> searched.shortestPathCostMatrix(starts, List.of("Nowhere"), 1));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> searched.shortestPathCostMatrix(starts, ends, 0));
+    }
+
+    /**
+     * Test that the costs within an infinite cost only hold the nodes that
+     * can be reached, whether they are searched for, read from a kept path
+     * tree, or read from a distance table.
+     */
+    @Test
+    public void testUnreachableNodesLeftOut() {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        for (String node : List.of("A", "B", "C"))
+            graph.insertNode(node);
+        graph.insertEdge("A", "B", 1.0);
+        CompactGraph<String> searched = graph.freeze();
+        CompactGraph<String> kept = graph.freeze();
+        kept.setPathTreeBudget(1L << 20);
+        kept.shortestPathCost("A", "B");
+        CompactGraph<String> table = graph.freeze();
+        table.buildDistanceTable(table.getNodeCount(), 1);
+        for (CompactGraph<String> compact : List.of(searched, kept, table)) {
+            MapADT<String, Double> costs = compact.shortestPathCostsWithin("A",
+                    Double.POSITIVE_INFINITY);
+            Assertions.assertEquals(2, costs.getSize());
+            Assertions.assertFalse(costs.containsKey("C"));
+        }
+    }
+}
@@ -0,0 +1,878 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.CRC32;
+
+/**
+ * This ContractionHierarchy is a CompactGraph that answers shortest path
+ * queries by searching a contraction hierarchy, which settles only a few
+ * hundred nodes even in graphs of millions of nodes.
+ *
+ * Preprocessing contracts the nodes of the graph one at a time, in order of
+ * how few edges contracting them adds. Contracting a node removes it from
+ * the graph, and for every pair of its neighbors u and x whose only shortest
+ * path ran through it, adds a shortcut edge from u to x with the cost of that
+ * path. A witness search from u, which avoids the contracted node, finds out
+ * whether another path from u to x costs no more, in which case no shortcut
+ * is needed. Every edge and shortcut ends up stored with whichever of its two
+ * nodes was contracted first: as an upward edge leaving it, or as a downward
+ * edge entering it. A shortest path then always climbs to the latest
+ * contracted node on it through upward edges, and descends from there through
+ * downward edges. So a query searches upward edges forward from the start
+ * node and downward edges backward from the end node, and joins the two
+ * searches at the node where they meet most cheaply. Each shortcut remembers
+ * the two edges it replaces, so the path is unpacked back into the nodes and
+ * edges of the original graph.
+ *
+ * Preprocessing takes a while on large graphs, so a hierarchy can be saved
+ * with write() and opened again with open(), along with the graph it was
+ * built for:
+ *     java ContractionHierarchy graph.snapshot graph.hierarchy
+ *
+ * Shortest paths and their costs are found this way, unless a distance
+ * table or path trees were set up (see CompactGraph), which answer them
+ * without searching anyway. The nodes reachable within a cost are found by
+ * the same search as in any CompactGraph. Any number of threads may search
+ * at once.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class ContractionHierarchy<NodeType> extends CompactGraph<NodeType> {
+
+    // first int of every saved hierarchy ("CNCH" in ascii), to recognize the format
+    public static final int MAGIC = 0x434E4348;
+    // version of the format saved by write(), increased whenever it changes
+    public static final int VERSION = 1;
+    // number of bytes in the header of a saved hierarchy: 7 ints, padded to
+    // a multiple of 8, followed by the checksum of the graph as a long
+    private static final int HEADER_BYTES = 40;
+
+    // most nodes that a witness search settles before it gives up, in which
+    // case the shortcut it was checking for is added anyway
+    protected static final int WITNESS_SETTLE_LIMIT = 500;
+    // most nodes that a witness search settles while only counting the
+    // shortcuts that contracting a node would need, to order the nodes
+    protected static final int ESTIMATE_SETTLE_LIMIT = 50;
+
+    // upward edges leaving node id are stored from upOffsets[id] to
+    // upOffsets[id+1]-1, with the node they lead to, their weight, and the
+    // id of the hierarchy edge they are
+    protected int[] upOffsets;
+    protected int[] upTargets;
+    protected double[] upWeights;
+    protected int[] upEdges;
+    // downward edges entering node id are stored from downOffsets[id] to
+    // downOffsets[id+1]-1, with the node they come from, their weight, and
+    // the id of the hierarchy edge they are
+    protected int[] downOffsets;
+    protected int[] downSources;
+    protected double[] downWeights;
+    protected int[] downEdges;
+    // the two hierarchy edges that each shortcut replaces, in path order; or
+    // for an edge of the original graph, -1 and its index in targets
+    protected int[] edgeFirst;
+    protected int[] edgeSecond;
+
+    // query states that are not in use, to be reused by later queries
+    protected final ConcurrentLinkedQueue<QueryState> idleStates = new ConcurrentLinkedQueue<>();
+
+    // A QueryState holds the forward and backward search of one query. Since
+    // a query only reaches a small part of the graph, its arrays are reused
+    // by later queries: only the entries of nodes that were reached are
+    // reset, rather than allocating arrays over the whole graph every time.
+    protected static class QueryState {
+        public final double[] forwardDist;
+        public final double[] backwardDist;
+        // the node before each reached node, and the hierarchy edge from it,
+        // within each search
+        public final int[] forwardPred;
+        public final int[] forwardEdge;
+        public final int[] backwardPred;
+        public final int[] backwardEdge;
+        public final IndexedMinHeap forwardHeap;
+        public final IndexedMinHeap backwardHeap;
+        // nodes that either search has reached
+        public int[] reached = new int[64];
+        public int reachedCount = 0;
+        public int settledCount = 0;
+
+        public QueryState(int nodeCount) {
+            forwardDist = new double[nodeCount];
+            backwardDist = new double[nodeCount];
+            forwardPred = new int[nodeCount];
+            forwardEdge = new int[nodeCount];
+            backwardPred = new int[nodeCount];
+            backwardEdge = new int[nodeCount];
+            forwardHeap = new IndexedMinHeap(nodeCount);
+            backwardHeap = new IndexedMinHeap(nodeCount);
+            Arrays.fill(forwardDist, Double.POSITIVE_INFINITY);
+            Arrays.fill(backwardDist, Double.POSITIVE_INFINITY);
+        }
+
+        // notes that node is being reached, before either of its costs is set
+        public void reach(int node) {
+            if (forwardDist[node] != Double.POSITIVE_INFINITY ||
+                    backwardDist[node] != Double.POSITIVE_INFINITY)
+                return;
+            if (reachedCount == reached.length)
+                reached = Arrays.copyOf(reached, 2 * reachedCount);
+            reached[reachedCount++] = node;
+        }
+
+        // forgets everything about the last query, so that another can start
+        public void reset() {
+            for (int i = 0; i < reachedCount; i++) {
+                forwardDist[reached[i]] = Double.POSITIVE_INFINITY;
+                backwardDist[reached[i]] = Double.POSITIVE_INFINITY;
+            }
+            reachedCount = 0;
+            settledCount = 0;
+            forwardHeap.clear();
+            backwardHeap.clear();
+        }
+    }
+
+    /**
+     * Builds a contraction hierarchy over the nodes and edges of graph, which
+     * it shares rather than copies.
+     *
+     * @param graph the graph to build a hierarchy for
+     */
+    public ContractionHierarchy(CompactGraph<NodeType> graph) {
+        super(graph.nodeData, graph.nodeIds, graph.offsets, graph.targets, graph.weights);
+        new Contraction().contractAll();
+    }
+
+    // creates a hierarchy over graph from arrays that open() has read
+    private ContractionHierarchy(CompactGraph<NodeType> graph, int[][] ints, double[][] doubles) {
+        super(graph.nodeData, graph.nodeIds, graph.offsets, graph.targets, graph.weights);
+        upOffsets = ints[0];
+        upTargets = ints[1];
+        upEdges = ints[2];
+        downOffsets = ints[3];
+        downSources = ints[4];
+        downEdges = ints[5];
+        edgeFirst = ints[6];
+        edgeSecond = ints[7];
+        upWeights = doubles[0];
+        downWeights = doubles[1];
+    }
+
+    /**
+     * Returns the number of shortcuts that this hierarchy added to the
+     * edges of its graph.
+     *
+     * @return the number of shortcut edges
+     */
+    public int getShortcutCount() {
+        int shortcuts = 0;
+        for (int first : edgeFirst)
+            if (first >= 0)
+                shortcuts++;
+        return shortcuts;
+    }
+
+    // The Contraction of this hierarchy's graph keeps the edges between the
+    // nodes that are not contracted yet, which it adds shortcuts to as it
+    // contracts nodes, and fills in the arrays of the hierarchy once every
+    // node is contracted.
+    private class Contraction {
+        // every hierarchy edge found so far, including those that were later
+        // replaced by cheaper shortcuts between the same nodes
+        int edgeCount = 0;
+        int[] from = new int[16];
+        int[] to = new int[16];
+        double[] weight = new double[16];
+        int[] first = new int[16];
+        int[] second = new int[16];
+
+        // ids of the edges leaving and entering each node that is not
+        // contracted yet, between it and other such nodes; or for contracted
+        // nodes, their upward and downward edges
+        final int[][] out;
+        final int[][] in;
+        final int[] outCount;
+        final int[] inCount;
+        final boolean[] contracted;
+        // number of neighbors of each node that were contracted already
+        final int[] contractedNeighbors;
+        // one more than the highest level of any contracted neighbor of each
+        // node, or 0 for nodes without any
+        final int[] level;
+
+        // state of the witness searches, which is reset for each search
+        final double[] witnessDist;
+        final IndexedMinHeap witnessHeap;
+        int[] witnessReached = new int[64];
+        int witnessReachedCount = 0;
+
+        Contraction() {
+            int nodeCount = nodeData.size();
+            out = new int[nodeCount][];
+            in = new int[nodeCount][];
+            outCount = new int[nodeCount];
+            inCount = new int[nodeCount];
+            contracted = new boolean[nodeCount];
+            contractedNeighbors = new int[nodeCount];
+            level = new int[nodeCount];
+            witnessDist = new double[nodeCount];
+            witnessHeap = new IndexedMinHeap(nodeCount);
+            Arrays.fill(witnessDist, Double.POSITIVE_INFINITY);
+            for (int node = 0; node < nodeCount; node++) {
+                out[node] = new int[Math.max(2, offsets[node + 1] - offsets[node])];
+                in[node] = new int[2];
+            }
+            for (int node = 0; node < nodeCount; node++)
+                for (int i = offsets[node]; i < offsets[node + 1]; i++)
+                    if (targets[i] != node) // self loops are never on a shortest path
+                        addEdge(node, targets[i], weights[i], -1, i);
+        }
+
+        // contracts every node, always next the one whose contraction adds
+        // the fewest edges, and then fills in the arrays of the hierarchy
+        void contractAll() {
+            int nodeCount = nodeData.size();
+            IndexedMinHeap queue = new IndexedMinHeap(nodeCount);
+            for (int node = 0; node < nodeCount; node++)
+                queue.insert(node, priority(node));
+            while (!queue.isEmpty()) {
+                int node = queue.removeMin();
+                // contracting neighbors changes a node's priority, which is
+                // only updated once it reaches the top of the queue
+                double priority = priority(node);
+                if (!queue.isEmpty() && priority > queue.peekPriority()) {
+                    queue.insert(node, priority);
+                    continue;
+                }
+                contract(node, true);
+                contracted[node] = true;
+                for (int i = 0; i < outCount[node]; i++) {
+                    int edge = out[node][i];
+                    removeFrom(in, inCount, to[edge], edge);
+                    contractedNeighbors[to[edge]]++;
+                    level[to[edge]] = Math.max(level[to[edge]], level[node] + 1);
+                }
+                for (int i = 0; i < inCount[node]; i++) {
+                    int edge = in[node][i];
+                    removeFrom(out, outCount, from[edge], edge);
+                    contractedNeighbors[from[edge]]++;
+                    level[from[edge]] = Math.max(level[from[edge]], level[node] + 1);
+                }
+            }
+
+            // the edges left with each node are those to and from nodes that
+            // were contracted after it
+            upOffsets = new int[nodeCount + 1];
+            downOffsets = new int[nodeCount + 1];
+            for (int node = 0; node < nodeCount; node++) {
+                upOffsets[node + 1] = upOffsets[node] + outCount[node];
+                downOffsets[node + 1] = downOffsets[node] + inCount[node];
+            }
+            upTargets = new int[upOffsets[nodeCount]];
+            upWeights = new double[upOffsets[nodeCount]];
+            upEdges = new int[upOffsets[nodeCount]];
+            downSources = new int[downOffsets[nodeCount]];
+            downWeights = new double[downOffsets[nodeCount]];
+            downEdges = new int[downOffsets[nodeCount]];
+            for (int node = 0; node < nodeCount; node++) {
+                for (int i = 0; i < outCount[node]; i++) {
+                    int edge = out[node][i];
+                    upTargets[upOffsets[node] + i] = to[edge];
+                    upWeights[upOffsets[node] + i] = weight[edge];
+                    upEdges[upOffsets[node] + i] = edge;
+                }
+                for (int i = 0; i < inCount[node]; i++) {
+                    int edge = in[node][i];
+                    downSources[downOffsets[node] + i] = from[edge];
+                    downWeights[downOffsets[node] + i] = weight[edge];
+                    downEdges[downOffsets[node] + i] = edge;
+                }
+            }
+            edgeFirst = Arrays.copyOf(first, edgeCount);
+            edgeSecond = Arrays.copyOf(second, edgeCount);
+        }
+
+        // returns how much contracting node would grow the graph, counted
+        // twice: the number of shortcuts it needs minus the number of edges it
+        // removes; plus the number of its neighbors contracted already, and
+        // its level, which spread the contracted nodes evenly across the graph
+        // and keep the hierarchy shallow
+        double priority(int node) {
+            int shortcuts = contract(node, false);
+            return 2 * (shortcuts - outCount[node] - inCount[node]) + contractedNeighbors[node] + level[node];
+        }
+
+        // finds the shortcuts that contracting node needs, and adds them
+        // when add is true; returns how many shortcuts are needed, which is
+        // only estimated with shorter witness searches when add is false
+        int contract(int node, boolean add) {
+            int shortcuts = 0;
+            for (int a = 0; a < inCount[node]; a++) {
+                int inEdge = in[node][a];
+                int pred = from[inEdge];
+                double maxCost = Double.NEGATIVE_INFINITY;
+                for (int b = 0; b < outCount[node]; b++)
+                    if (to[out[node][b]] != pred)
+                        maxCost = Math.max(maxCost, weight[inEdge] + weight[out[node][b]]);
+                if (maxCost == Double.NEGATIVE_INFINITY)
+                    continue;
+                witnessSearch(pred, node, maxCost, add ? WITNESS_SETTLE_LIMIT : ESTIMATE_SETTLE_LIMIT);
+                for (int b = 0; b < outCount[node]; b++) {
+                    int outEdge = out[node][b];
+                    int succ = to[outEdge];
+                    double cost = weight[inEdge] + weight[outEdge];
+                    if (succ == pred || witnessDist[succ] <= cost)
+                        continue;
+                    shortcuts++;
+                    if (add)
+                        addEdge(pred, succ, cost, inEdge, outEdge);
+                }
+            }
+            return shortcuts;
+        }
+
+        // searches outward from source without passing through avoid, until
+        // every path left costs more than maxCost or limit nodes are settled,
+        // leaving the costs found in witnessDist
+        void witnessSearch(int source, int avoid, double maxCost, int limit) {
+            for (int i = 0; i < witnessReachedCount; i++)
+                witnessDist[witnessReached[i]] = Double.POSITIVE_INFINITY;
+            witnessReachedCount = 0;
+            witnessHeap.clear();
+            reachWitness(source, 0);
+            witnessHeap.insert(source, 0);
+            int settled = 0;
+            while (!witnessHeap.isEmpty() && witnessHeap.peekPriority() <= maxCost &&
+                    settled++ < limit) {
+                int node = witnessHeap.removeMin();
+                for (int i = 0; i < outCount[node]; i++) {
+                    int edge = out[node][i];
+                    int succ = to[edge];
+                    double cost = witnessDist[node] + weight[edge];
+                    if (succ == avoid || cost >= witnessDist[succ] || cost > maxCost)
+                        continue;
+                    if (witnessHeap.contains(succ))
+                        witnessHeap.decreaseKey(succ, cost);
+                    else
+                        witnessHeap.insert(succ, cost);
+                    reachWitness(succ, cost);
+                }
+            }
+        }
+
+        // sets the cost that the witness search found to node
+        void reachWitness(int node, double cost) {
+            if (witnessDist[node] == Double.POSITIVE_INFINITY) {
+                if (witnessReachedCount == witnessReached.length)
+                    witnessReached = Arrays.copyOf(witnessReached, 2 * witnessReachedCount);
+                witnessReached[witnessReachedCount++] = node;
+            }
+            witnessDist[node] = cost;
+        }
+
+        // adds an edge from pred to succ, unless one that costs no more is
+        // there already; a costlier one is replaced
+        void addEdge(int pred, int succ, double cost, int firstHalf, int secondHalf) {
+            for (int i = 0; i < outCount[pred]; i++) {
+                int edge = out[pred][i];
+                if (to[edge] != succ)
+                    continue;
+                if (weight[edge] <= cost)
+                    return;
+                removeFrom(out, outCount, pred, edge);
+                removeFrom(in, inCount, succ, edge);
+                break;
+            }
+            if (edgeCount == from.length) {
+                from = Arrays.copyOf(from, 2 * edgeCount);
+                to = Arrays.copyOf(to, 2 * edgeCount);
+                weight = Arrays.copyOf(weight, 2 * edgeCount);
+                first = Arrays.copyOf(first, 2 * edgeCount);
+                second = Arrays.copyOf(second, 2 * edgeCount);
+            }
+            int edge = edgeCount++;
+            from[edge] = pred;
+            to[edge] = succ;
+            weight[edge] = cost;
+            first[edge] = firstHalf;
+            second[edge] = secondHalf;
+            addTo(out, outCount, pred, edge);
+            addTo(in, inCount, succ, edge);
+        }
+
+        // adds edge to the list of node within lists
+        void addTo(int[][] lists, int[] counts, int node, int edge) {
+            if (counts[node] == lists[node].length)
+                lists[node] = Arrays.copyOf(lists[node], 2 * counts[node]);
+            lists[node][counts[node]++] = edge;
+        }
+
+        // removes edge from the list of node within lists
+        void removeFrom(int[][] lists, int[] counts, int node, int edge) {
+            int[] list = lists[node];
+            for (int i = 0; i < counts[node]; i++)
+                if (list[i] == edge) {
+                    list[i] = list[--counts[node]];
+                    return;
+                }
+        }
+    }
+
+    // returns a query state that no other query is using
+    private QueryState takeState() {
+        QueryState state = idleStates.poll();
+        return state != null ? state : new QueryState(nodeData.size());
+    }
+
+    /**
+     * Searches the hierarchy forward from the node with id source along
+     * upward edges, and backward from the node with id target along downward
+     * edges, each time settling a node of whichever search has the cheaper
+     * node to settle next. A search stops once its next node costs at least
+     * as much as the cheapest path found through a node that both searches
+     * reached, since no later node can join into a cheaper path. A settled
+     * node whose edges cannot be on a shortest path, because the same search
+     * reaches it more cheaply from a node above it, is not expanded.
+     *
+     * @param state  an unused query state, which holds both searches after
+     * @param source id of the node to search from
+     * @param target id of the node to search to
+     * @return the id of the node that the shortest path climbs to, where the
+     *         two searches meet, or -1 if there is no path
+     */
+    protected int searchHierarchy(QueryState state, int source, int target) {
+        state.reach(source);
+        state.reach(target);
+        state.forwardDist[source] = 0;
+        state.backwardDist[target] = 0;
+        state.forwardHeap.insert(source, 0);
+        state.backwardHeap.insert(target, 0);
+        double bestCost = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+        while (true) {
+            boolean forwardDone = state.forwardHeap.isEmpty() ||
+                    state.forwardHeap.peekPriority() >= bestCost;
+            boolean backwardDone = state.backwardHeap.isEmpty() ||
+                    state.backwardHeap.peekPriority() >= bestCost;
+            if (forwardDone && backwardDone)
+                break;
+            boolean forward = backwardDone || (!forwardDone &&
+                    state.forwardHeap.peekPriority() <= state.backwardHeap.peekPriority());
+            int node;
+            if (forward) {
+                node = state.forwardHeap.removeMin();
+                if (!stalled(node, downOffsets, downSources, downWeights, state.forwardDist))
+                    relax(state, node, upOffsets, upTargets, upWeights, upEdges, state.forwardDist,
+                            state.forwardPred, state.forwardEdge, state.forwardHeap);
+            } else {
+                node = state.backwardHeap.removeMin();
+                if (!stalled(node, upOffsets, upTargets, upWeights, state.backwardDist))
+                    relax(state, node, downOffsets, downSources, downWeights, downEdges,
+                            state.backwardDist, state.backwardPred, state.backwardEdge,
+                            state.backwardHeap);
+            }
+            state.settledCount++;
+            double cost = state.forwardDist[node] + state.backwardDist[node];
+            if (cost < bestCost) {
+                bestCost = cost;
+                meeting = node;
+            }
+        }
+        settledCount = state.settledCount;
+        return meeting;
+    }
+
+    // returns whether one direction of a query has already reached a node
+    // contracted after node, from which an edge the other way leads to node
+    // at a lower cost than dist[node]: the search then never reached node by
+    // its shortest path, so there is no point relaxing node's edges
+    // (stall-on-demand)
+    private boolean stalled(int node, int[] edgeOffsets, int[] edgeNodes, double[] edgeWeights,
+            double[] dist) {
+        for (int i = edgeOffsets[node]; i < edgeOffsets[node + 1]; i++)
+            if (dist[edgeNodes[i]] + edgeWeights[i] < dist[node])
+                return true;
+        return false;
+    }
+
+    // relaxes the edges of node within one direction of a query
+    private void relax(QueryState state, int node, int[] edgeOffsets, int[] edgeNodes,
+            double[] edgeWeights, int[] edgeIds, double[] dist, int[] pred, int[] predEdge,
+            IndexedMinHeap heap) {
+        double nodeCost = dist[node];
+        for (int i = edgeOffsets[node]; i < edgeOffsets[node + 1]; i++) {
+            int next = edgeNodes[i];
+            double cost = nodeCost + edgeWeights[i];
+            if (cost >= dist[next])
+                continue;
+            if (heap.contains(next)) {
+                heap.decreaseKey(next, cost);
+            } else {
+                state.reach(next);
+                heap.insert(next, cost);
+            }
+            dist[next] = cost;
+            pred[next] = node;
+            predEdge[next] = edgeIds[i];
+        }
+    }
+
+    // settles every node that one direction of a query reaches from node,
+    // with stall-on-demand; afterwards, those are the reached nodes of state
+    private void searchUpward(QueryState state, int node, boolean forward) {
+        double[] dist = forward ? state.forwardDist : state.backwardDist;
+        IndexedMinHeap heap = forward ? state.forwardHeap : state.backwardHeap;
+        state.reach(node);
+        dist[node] = 0;
+        heap.insert(node, 0);
+        while (!heap.isEmpty()) {
+            node = heap.removeMin();
+            state.settledCount++;
+            if (forward && !stalled(node, downOffsets, downSources, downWeights, dist))
+                relax(state, node, upOffsets, upTargets, upWeights, upEdges, dist,
+                        state.forwardPred, state.forwardEdge, heap);
+            else if (!forward && !stalled(node, upOffsets, upTargets, upWeights, dist))
+                relax(state, node, downOffsets, downSources, downWeights, downEdges, dist,
+                        state.backwardPred, state.backwardEdge, heap);
+        }
+    }
+
+    /**
+     * Returns the cost of the shortest path from each of the start nodes to
+     * each of the end nodes, found by the bucket-based many-to-many algorithm
+     * over this hierarchy. A complete backward search from each end node
+     * leaves an entry in a bucket at every node it reaches, with the cost
+     * from there to that end node. A complete forward search from each start
+     * node then looks through the buckets of every node it reaches, and the
+     * cheapest sum of the two costs for each end node is the cost of the
+     * shortest path to it. Both kinds of search are shared among parallelism
+     * threads. Costs are added up along hierarchy edges rather than original
+     * edges, so they may differ from those of shortestPathCost in their last
+     * bits. Unless a distance table or path trees were set up, in which case
+     * this works as in any CompactGraph.
+     *
+     * @param starts      the data items in the starting nodes of the paths
+     * @param ends        the data items in the destination nodes of the paths
+     * @param parallelism the number of threads to search with
+     * @return matrix[i][j] is the cost of the shortest path from starts[i] to
+     *         ends[j], or infinity when there is none
+     * @throws NoSuchElementException   if any of the nodes cannot be found in
+     *                                  the graph
+     * @throws IllegalArgumentException if parallelism is less than one
+     */
+    @Override
+    public double[][] shortestPathCostMatrix(List<NodeType> starts, List<NodeType> ends,
+            int parallelism) {
+        if (distanceTable != null || pathTrees != null || parallelism < 1)
+            return super.shortestPathCostMatrix(starts, ends, parallelism);
+        int[] sources = idsOf(starts);
+        int[] sinks = idsOf(ends);
+
+        // the nodes that the backward search from each end node reached, and
+        // their costs to it
+        int[][] sinkNodes = new int[sinks.length][];
+        double[][] sinkCosts = new double[sinks.length][];
+        forEachInParallel(sinks.length, parallelism, "compute a cost matrix", j -> {
+            QueryState state = takeState();
+            try {
+                searchUpward(state, sinks[j], false);
+                sinkNodes[j] = Arrays.copyOf(state.reached, state.reachedCount);
+                sinkCosts[j] = new double[state.reachedCount];
+                for (int k = 0; k < state.reachedCount; k++)
+                    sinkCosts[j][k] = state.backwardDist[state.reached[k]];
+            } finally {
+                state.reset();
+                idleStates.add(state);
+            }
+        });
+        // the bucket of node id is stored from bucketOffsets[id] to
+        // bucketOffsets[id+1]-1, with the column of each end node and its cost
+        int[] bucketOffsets = new int[nodeData.size() + 1];
+        for (int[] nodes : sinkNodes)
+            for (int node : nodes)
+                bucketOffsets[node + 1]++;
+        for (int node = 0; node < nodeData.size(); node++)
+            bucketOffsets[node + 1] += bucketOffsets[node];
+        int[] next = Arrays.copyOf(bucketOffsets, nodeData.size());
+        int[] bucketColumns = new int[bucketOffsets[nodeData.size()]];
+        double[] bucketCosts = new double[bucketColumns.length];
+        for (int j = 0; j < sinks.length; j++)
+            for (int k = 0; k < sinkNodes[j].length; k++) {
+                int index = next[sinkNodes[j][k]]++;
+                bucketColumns[index] = j;
+                bucketCosts[index] = sinkCosts[j][k];
+            }
+
+        double[][] matrix = new double[sources.length][];
+        forEachInParallel(sources.length, parallelism, "compute a cost matrix", i -> {
+            double[] row = new double[sinks.length];
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+            QueryState state = takeState();
+            try {
+                // stalled nodes were reached at more than their lowest cost,
+                // which can only make sums that are no cheaper than the best
+                searchUpward(state, sources[i], true);
+                for (int k = 0; k < state.reachedCount; k++) {
+                    int node = state.reached[k];
+                    double cost = state.forwardDist[node];
+                    for (int b = bucketOffsets[node]; b < bucketOffsets[node + 1]; b++)
+                        if (cost + bucketCosts[b] < row[bucketColumns[b]])
+                            row[bucketColumns[b]] = cost + bucketCosts[b];
+                }
+            } finally {
+                state.reset();
+                idleStates.add(state);
+            }
+            matrix[i] = row;
+        });
+        return matrix;
+    }
+
+    // adds the indexes in targets of the original edges that hierarchy edge
+    // replaces to originals, in path order
+    private void unpack(int edge, List<Integer> originals) {
+        if (edgeFirst[edge] < 0) {
+            originals.add(edgeSecond[edge]);
+        } else {
+            unpack(edgeFirst[edge], originals);
+            unpack(edgeSecond[edge], originals);
+        }
+    }
+
+    @Override
+    public double shortestPathCost(NodeType start, NodeType end) {
+        if (distanceTable != null || pathTrees != null)
+            return super.shortestPathCost(start, end);
+        return shortestPathRoute(start, end).getTotalCost();
+    }
+
+    /**
+     * Returns the shortest path from the node containing the start data to
+     * the node containing the end data, found by searching this hierarchy and
+     * unpacking every shortcut on the path into the original edges it
+     * replaces. The total cost is added up along those edges in path order,
+     * just as CompactGraph adds it up.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the nodes, edge weights, and cost of this shortest path
+     * @throws NoSuchElementException if either node is not in the graph, or
+     *                                there is no path between them
+     */
+    @Override
+    public RouteResult<NodeType> shortestPathRoute(NodeType start, NodeType end) {
+        if (distanceTable != null || pathTrees != null)
+            return super.shortestPathRoute(start, end);
+        int source = idOf(start);
+        int target = idOf(end);
+        List<Integer> originals = new ArrayList<>();
+        QueryState state = takeState();
+        try {
+            int meeting = searchHierarchy(state, source, target);
+            if (meeting < 0)
+                throw new NoSuchElementException("There is no directed path from " + start + " to " + end);
+            // hierarchy edges from source up to the meeting node, then down to target
+            List<Integer> edges = new ArrayList<>();
+            for (int node = meeting; node != source; node = state.forwardPred[node])
+                edges.add(state.forwardEdge[node]);
+            Collections.reverse(edges);
+            for (int node = meeting; node != target; node = state.backwardPred[node])
+                edges.add(state.backwardEdge[node]);
+            for (int edge : edges)
+                unpack(edge, originals);
+        } finally {
+            state.reset();
+            idleStates.add(state);
+        }
+
+        List<NodeType> path = new ArrayList<>(originals.size() + 1);
+        List<Double> legWeights = new ArrayList<>(originals.size());
+        path.add(start);
+        double cost = 0;
+        for (int edge : originals) {
+            path.add(nodeData.get(targets[edge]));
+            legWeights.add(weights[edge]);
+            cost += weights[edge];
+        }
+        return new RouteResult<>(path, legWeights, cost);
+    }
+
+    /**
+     * Saves this hierarchy to a file, which can only be opened along with the
+     * graph it was built for. The file holds, in little endian byte order, a
+     * header of MAGIC, VERSION, the node count and edge count of the graph,
+     * the number of hierarchy edges, upward edges, and downward edges, and a
+     * CRC32 checksum of the graph's CSR arrays; then each array of the
+     * hierarchy, every one starting at a multiple of 8 bytes; and last, a
+     * CRC32 checksum of everything before it. Like GraphSnapshot, it is
+     * written to a temporary file that is then renamed to filename.
+     *
+     * @param filename the file to save to, which is replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public void write(String filename) throws IOException {
+        int[][] ints = intArrays();
+        double[][] doubles = { upWeights, downWeights };
+        long checksumStart = HEADER_BYTES;
+        for (int[] array : ints)
+            checksumStart += GraphSnapshot.pad(4L * array.length);
+        for (double[] array : doubles)
+            checksumStart += 8L * array.length;
+        if (checksumStart + 8 > Integer.MAX_VALUE)
+            throw new IOException("Hierarchy is too large to be saved");
+
+        File file = new File(filename);
+        File partial = new File(filename + ".tmp");
+        try (RandomAccessFile out = new RandomAccessFile(partial, "rw");
+                FileChannel channel = out.getChannel()) {
+            out.setLength(0);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, checksumStart + 8);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(nodeData.size()).putInt(targets.length)
+                    .putInt(edgeFirst.length).putInt(upTargets.length).putInt(downSources.length);
+            buffer.putLong(32, graphChecksum(this));
+            int position = HEADER_BYTES;
+            for (int[] array : ints) {
+                buffer.position(position);
+                buffer.asIntBuffer().put(array);
+                position += GraphSnapshot.pad(4L * array.length);
+            }
+            for (double[] array : doubles) {
+                buffer.position(position);
+                buffer.asDoubleBuffer().put(array);
+                position += 8 * array.length;
+            }
+            buffer.position(position);
+            buffer.putLong(GraphSnapshot.checksum(buffer, position));
+            buffer.force();
+        }
+        if (!partial.renameTo(file))
+            throw new IOException("Could not replace " + filename + " with " + partial.getPath());
+    }
+
+    /**
+     * Opens a hierarchy saved by write(), by mapping it into memory.
+     *
+     * @param graph    the graph that the hierarchy was built for
+     * @param filename the file that the hierarchy was saved to
+     * @return the hierarchy saved to that file, over the nodes and edges of graph
+     * @throws IOException if the file cannot be read, is not a hierarchy of
+     *                     this VERSION, does not match its checksum, or was
+     *                     built for a different graph
+     */
+    public static <NodeType> ContractionHierarchy<NodeType> open(CompactGraph<NodeType> graph,
+            String filename) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(filename, "r");
+                FileChannel channel = in.getChannel()) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 8 || size > Integer.MAX_VALUE)
+                throw new IOException(filename + " is not a contraction hierarchy");
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC)
+                throw new IOException(filename + " is not a contraction hierarchy");
+            int version = buffer.getInt();
+            if (version != VERSION)
+                throw new IOException(filename + " is a version " + version +
+                        " hierarchy, but only version " + VERSION + " can be opened");
+            int nodeCount = buffer.getInt();
+            int graphEdgeCount = buffer.getInt();
+            int edgeCount = buffer.getInt();
+            int upCount = buffer.getInt();
+            int downCount = buffer.getInt();
+            if (nodeCount != graph.nodeData.size() || graphEdgeCount != graph.targets.length ||
+                    buffer.getLong(32) != graphChecksum(graph))
+                throw new IOException(filename + " was built for a different graph");
+            if (edgeCount < 0 || upCount < 0 || downCount < 0)
+                throw new IOException(filename + " is truncated or corrupted");
+
+            int[][] ints = { new int[nodeCount + 1], new int[upCount], new int[upCount],
+                    new int[nodeCount + 1], new int[downCount], new int[downCount],
+                    new int[edgeCount], new int[edgeCount] };
+            double[][] doubles = { new double[upCount], new double[downCount] };
+            long checksumStart = HEADER_BYTES;
+            for (int[] array : ints)
+                checksumStart += GraphSnapshot.pad(4L * array.length);
+            for (double[] array : doubles)
+                checksumStart += 8L * array.length;
+            if (checksumStart + 8 != size)
+                throw new IOException(filename + " is truncated or corrupted");
+            if (buffer.getLong((int) checksumStart) != GraphSnapshot.checksum(buffer, (int) checksumStart))
+                throw new IOException(filename + " does not match its checksum");
+
+            int position = HEADER_BYTES;
+            for (int[] array : ints) {
+                buffer.position(position);
+                buffer.asIntBuffer().get(array);
+                position += GraphSnapshot.pad(4L * array.length);
+            }
+            for (double[] array : doubles) {
+                buffer.position(position);
+                buffer.asDoubleBuffer().get(array);
+                position += 8 * array.length;
+            }
+            if (ints[0][nodeCount] != upCount || ints[3][nodeCount] != downCount)
+                throw new IOException(filename + " is truncated or corrupted");
+            return new ContractionHierarchy<>(graph, ints, doubles);
+        }
+    }
+
+    // returns the int arrays of this hierarchy, in the order they are saved in
+    private int[][] intArrays() {
+        return new int[][] { upOffsets, upTargets, upEdges, downOffsets, downSources, downEdges,
+            edgeFirst, edgeSecond };
+    }
+
+    // computes a CRC32 checksum of the CSR arrays of graph
+    private static long graphChecksum(CompactGraph<?> graph) {
+        CRC32 crc = new CRC32();
+        ByteBuffer bytes = ByteBuffer.allocate(8 * 4096).order(ByteOrder.LITTLE_ENDIAN);
+        for (int[] array : new int[][] { graph.offsets, graph.targets })
+            for (int value : array) {
+                if (bytes.remaining() < 4) {
+                    crc.update(bytes.flip());
+                    bytes.clear();
+                }
+                bytes.putInt(value);
+            }
+        for (double value : graph.weights) {
+            if (bytes.remaining() < 8) {
+                crc.update(bytes.flip());
+                bytes.clear();
+            }
+            bytes.putDouble(value);
+        }
+        crc.update(bytes.flip());
+        return crc.getValue();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2)
+            throw new IllegalArgumentException("Usage: java ContractionHierarchy " +
+                    "graph.snapshot|graph.dot graph.hierarchy");
+        long startTime = System.nanoTime();
+        CompactGraph<String> graph;
+        if (args[0].endsWith(".snapshot")) {
+            graph = GraphSnapshot.open(args[0]);
+        } else {
+            DijkstraGraph<String, Double> loaded = new DijkstraGraph<>();
+            new Backend<String>(loaded).loadGraphData(args[0]);
+            graph = loaded.freeze();
+        }
+        ContractionHierarchy<String> hierarchy = new ContractionHierarchy<>(graph);
+        hierarchy.write(args[1]);
+        System.out.println("Wrote hierarchy of " + graph.getNodeCount() + " nodes, " +
+                graph.getEdgeCount() + " edges and " + hierarchy.getShortcutCount() +
+                " shortcuts to " + args[1] + " in " + (System.nanoTime() - startTime) / 1_000_000 + " ms");
+    }
+}
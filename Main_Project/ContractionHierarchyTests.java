@@ -0,0 +1,147 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests that a ContractionHierarchy finds shortest paths of the
+ * same cost as the CompactGraph it was built for, and that saved hierarchies
+ * open again unchanged.
+ */
+public class ContractionHierarchyTests {
+
+    // loads campus.dot and freezes it into a CompactGraph
+    private static CompactGraph<String> loadCampus() throws IOException {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        new Backend<String>(graph).loadGraphData("campus.dot");
+        return graph.freeze();
+    }
+
+    // checks that hierarchy finds a shortest path between every pair of
+    // nodes of graph, made of the graph's own edges
+    private static void assertShortestPaths(CompactGraph<String> graph,
+            ContractionHierarchy<String> hierarchy) {
+        for (String start : graph.getAllNodes())
+            for (String end : graph.getAllNodes()) {
+                double expected = graph.shortestPathCost(start, end);
+                RouteResult<String> route = hierarchy.shortestPathRoute(start, end);
+                // paths that tie may round to costs that differ in their last bit
+                Assertions.assertEquals(expected, route.getTotalCost(), 1e-9);
+                Assertions.assertEquals(route.getTotalCost(), hierarchy.shortestPathCost(start, end));
+                List<String> nodes = route.getNodes();
+                Assertions.assertEquals(start, nodes.get(0));
+                Assertions.assertEquals(end, nodes.get(nodes.size() - 1));
+                for (int i = 1; i < nodes.size(); i++)
+                    Assertions.assertEquals(graph.getEdge(nodes.get(i - 1), nodes.get(i)),
+                            route.getLegWeights().get(i - 1));
+            }
+    }
+
+    /**
+     * Test that the shortest paths between every pair of campus locations,
+     * unpacked from the hierarchy, are paths through the original graph that
+     * cost the same as those found by Dijkstra's algorithm.
+     */
+    @Test
+    public void testShortestPathsMatch() throws IOException {
+        CompactGraph<String> graph = loadCampus();
+        ContractionHierarchy<String> hierarchy = new ContractionHierarchy<>(graph);
+        assertShortestPaths(graph, hierarchy);
+        Assertions.assertTrue(hierarchy.getShortcutCount() > 0);
+        Assertions.assertThrows(NoSuchElementException.class,
+                () -> hierarchy.shortestPathCost("Nowhere", "Bascom Hall"));
+    }
+
+    /**
+     * Test that searching between nodes without a path throws a
+     * NoSuchElementException, and that paths are unpacked in order.
+     */
+    @Test
+    public void testUnreachable() {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        for (String node : List.of("A", "B", "C", "D", "E"))
+            graph.insertNode(node);
+        graph.insertEdge("A", "B", 1.0);
+        graph.insertEdge("B", "C", 2.0);
+        graph.insertEdge("C", "D", 3.0);
+        graph.insertEdge("A", "D", 7.0);
+        ContractionHierarchy<String> hierarchy = new ContractionHierarchy<>(graph.freeze());
+        Assertions.assertEquals(List.of("A", "B", "C", "D"), hierarchy.shortestPathData("A", "D"));
+        Assertions.assertEquals(List.of(1.0, 2.0, 3.0),
+                hierarchy.shortestPathRoute("A", "D").getLegWeights());
+        Assertions.assertEquals(List.of("C"), hierarchy.shortestPathData("C", "C"));
+        Assertions.assertThrows(NoSuchElementException.class,
+                () -> hierarchy.shortestPathData("D", "A"));
+        Assertions.assertThrows(NoSuchElementException.class,
+                () -> hierarchy.shortestPathData("A", "E"));
+    }
+
+    /**
+     * Test that a cost matrix found with buckets holds the cost of the
+     * shortest path between every pair of campus locations, and infinity
+     * between nodes without a path.
+     */
+    @Test
+    public void testCostMatrix() throws IOException {
+        CompactGraph<String> graph = loadCampus();
+        ContractionHierarchy<String> hierarchy = new ContractionHierarchy<>(graph);
+        List<String> locations = graph.getAllNodes();
+        double[][] matrix = hierarchy.shortestPathCostMatrix(locations, locations, 2);
+        for (int i = 0; i < locations.size(); i++)
+            for (int j = 0; j < locations.size(); j++)
+                Assertions.assertEquals(graph.shortestPathCost(locations.get(i), locations.get(j)),
+                        matrix[i][j], 1e-9);
+
+        DijkstraGraph<String, Double> small = new DijkstraGraph<>();
+        for (String node : List.of("A", "B", "C"))
+            small.insertNode(node);
+        small.insertEdge("A", "B", 1.0);
+        small.insertEdge("B", "C", 2.0);
+        double[][] costs = new ContractionHierarchy<>(small.freeze())
+                .shortestPathCostMatrix(List.of("A", "C"), List.of("C", "A", "B"), 1);
+        Assertions.assertArrayEquals(new double[] {3.0, 0.0, 1.0}, costs[0]);
+        Assertions.assertArrayEquals(new double[] {0.0, Double.POSITIVE_INFINITY,
+                Double.POSITIVE_INFINITY}, costs[1]);
+    }
+
+    /**
+     * Test that a saved hierarchy opens again with the same arrays, and that
+     * it cannot be opened for a different graph or after it was damaged.
+     */
+    @Test
+    public void testWriteAndOpen() throws IOException {
+        CompactGraph<String> graph = loadCampus();
+        ContractionHierarchy<String> expected = new ContractionHierarchy<>(graph);
+        File file = File.createTempFile("campus", ".hierarchy");
+        file.deleteOnExit();
+        expected.write(file.getPath());
+
+        ContractionHierarchy<String> opened = ContractionHierarchy.open(graph, file.getPath());
+        Assertions.assertArrayEquals(expected.upOffsets, opened.upOffsets);
+        Assertions.assertArrayEquals(expected.upTargets, opened.upTargets);
+        Assertions.assertArrayEquals(expected.upWeights, opened.upWeights);
+        Assertions.assertArrayEquals(expected.downSources, opened.downSources);
+        Assertions.assertArrayEquals(expected.downWeights, opened.downWeights);
+        Assertions.assertArrayEquals(expected.edgeFirst, opened.edgeFirst);
+        Assertions.assertArrayEquals(expected.edgeSecond, opened.edgeSecond);
+        assertShortestPaths(graph, opened);
+
+        DijkstraGraph<String, Double> changed = new DijkstraGraph<>();
+        new Backend<String>(changed).loadGraphData("campus.dot");
+        changed.insertEdge("Bascom Hall", "Van Hise Hall", 1.0);
+        Assertions.assertThrows(IOException.class,
+                () -> ContractionHierarchy.open(changed.freeze(), file.getPath()));
+
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.seek(out.length() / 2);
+            int b = out.read();
+            out.seek(out.length() / 2);
+            out.write(b ^ 1);
+        }
+        Assertions.assertThrows(IOException.class,
+                () -> ContractionHierarchy.open(graph, file.getPath()));
+    }
+}
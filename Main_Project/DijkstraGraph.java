@@ -17,6 +17,10 @@ import java.util.PriorityQueue;
  * computing the total cost and list of node data along the shortest path
  * connecting a provided starting to ending nodes. This class makes use of
  * Dijkstra's shortest path algorithm.
+ *
+ * Each search keeps its state in maps and queues of its own, so any number of
+ * threads may search the same graph at once, as long as no thread modifies
+ * the graph meanwhile.
  */
 public class DijkstraGraph<NodeType, EdgeType extends Number>
         extends BaseGraph<NodeType, EdgeType>
@@ -29,7 +33,8 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
      * field. The total cost of this path is stored in its cost field. And the
      * predecessor SearchNode within this path is referened by the predecessor
      * field (this field is null within the SearchNode containing the starting
-     * node in its node field).
+     * node in its node field). The weight of the edge from that predecessor
+     * is stored in the legCost field.
      *
      * SearchNodes are Comparable and are sorted by cost so that the lowest cost
      * SearchNode has the highest priority within a java.util.PriorityQueue.
@@ -38,11 +43,13 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
         public Node node;
         public double cost;
         public SearchNode predecessor;
+        public double legCost;
 
-        public SearchNode(Node node, double cost, SearchNode predecessor) {
+        public SearchNode(Node node, double cost, SearchNode predecessor, double legCost) {
             this.node = node;
             this.cost = cost;
             this.predecessor = predecessor;
+            this.legCost = legCost;
         }
 
         @Override
@@ -55,6 +62,25 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
         }
     }
 
+    /**
+     * The algorithms that a DijkstraGraph can find the shortest path between
+     * two nodes with. FORWARD runs Dijkstra's algorithm outward from the start
+     * node until it settles the end node. BIDIRECTIONAL runs it forward from
+     * the start node and backward from the end node (along edgesEntering),
+     * alternating between them, and stops once the two searches have met on
+     * a shortest path, which settles fewer nodes on large graphs.
+     */
+    public enum SearchStrategy {
+        FORWARD, BIDIRECTIONAL
+    }
+
+    // number of nodes that were settled by the most recent search; when
+    // several threads search at once, this is whichever search finished last
+    protected volatile int settledCount = 0;
+
+    // algorithm used to find the shortest path between two nodes
+    protected volatile SearchStrategy searchStrategy = SearchStrategy.FORWARD;
+
     /**
      * Constructor that sets the map that the graph uses.
      */
@@ -62,6 +88,75 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
         super(new HashtableMap<>());
     }
 
+    /**
+     * Constructor that sets the map that the graph uses, such as a
+     * ProbingHashtableMap in place of the default HashtableMap. Searches
+     * through this graph will use maps of the same kind.
+     *
+     * @param map the empty map the graph uses to map a data object to the
+     *            node object it is stored in
+     */
+    public DijkstraGraph(MapADT<NodeType, Node> map) {
+        super(map);
+    }
+
+    /**
+     * This helper method runs Dijkstra's algorithm outward from the provided
+     * start node, and returns the SearchNode that each node was settled with.
+     * Every SearchNode in the returned map holds the cost of the shortest path
+     * to its node, and links back to the start node through its predecessors.
+     * Paths that cost more than maxCost are not expanded, so only the nodes
+     * that can be reached within maxCost are settled and returned. When end is
+     * not null, the search stops as soon as the end node has been settled,
+     * since no later path can reach it at a lower cost.
+     *
+     * @param start   the data item in the starting node for the search
+     * @param end     the data item in the node to stop searching at, or null
+     *                to settle every node within maxCost
+     * @param maxCost the largest path cost that the search should expand
+     * @return map from the data in each settled node to its SearchNode
+     * @throws NoSuchElementException when start does not correspond to a
+     *                                graph node
+     */
+    protected MapADT<NodeType, SearchNode> search(NodeType start, NodeType end, double maxCost) {
+        if(!nodes.containsKey(start)) {
+            throw new NoSuchElementException("key " + start.toString() + " not in map");
+        }
+        //initialize the min heap and put the initial "empty" edge in it
+        PriorityQueue<SearchNode> edgeHeap = new PriorityQueue<>();
+        SearchNode startSearchNode = new SearchNode(nodes.get(start), 0, null, 0);
+        edgeHeap.add(startSearchNode);
+
+        MapADT<NodeType, SearchNode> visitedMap = createMap();
+
+        while(!edgeHeap.isEmpty()) {
+            SearchNode topNode = edgeHeap.remove();
+            // every path left in the heap costs at least as much as this one
+            if(topNode.cost > maxCost) {
+                break;
+            }
+            if(visitedMap.containsKey(topNode.node.data)) {
+                continue;
+            }
+            visitedMap.put(topNode.node.data, topNode);
+            // once the end node is settled, its shortest path is known
+            if(end != null && topNode.node.data.equals(end)) {
+                break;
+            }
+            // if the edge leads to an unvisited node, put all the outgoing edges of that node that again lead to unvisited nodes into the heap
+            for(Edge edge: topNode.node.edgesLeaving) {
+                double legCost = edge.data.doubleValue();
+                double newCost = topNode.cost + legCost;
+                if(newCost <= maxCost && !visitedMap.containsKey(edge.successor.data)) {
+                    SearchNode newEdge = new SearchNode(edge.successor, newCost, topNode, legCost);
+                    edgeHeap.add(newEdge);
+                }
+            }
+        }
+        settledCount = visitedMap.getSize();
+        return visitedMap;
+    }
+
     /**
      * This helper method creates a network of SearchNodes while computing the
      * shortest path between the provided start and end locations. The
@@ -86,27 +181,14 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
         if(!nodes.containsKey(end)) {
             throw new NoSuchElementException("key " + end.toString() + " not in map");
         }
-        //initialize the min heap and put the initial "empty" edge in it
-        PriorityQueue<SearchNode> edgeHeap = new PriorityQueue<>();
-        SearchNode startSearchNode = new SearchNode(nodes.get(start), 0, null);
-        edgeHeap.add(startSearchNode);
-
-        HashtableMap<NodeType, SearchNode> visitedMap = new HashtableMap<>();
-
-        while(!edgeHeap.isEmpty()) {
-            SearchNode topNode = edgeHeap.remove();
-            if(visitedMap.containsKey(topNode.node.data)) {
-                continue;
-            }
-            visitedMap.put(topNode.node.data, topNode);
-            // if the edge leads to an unvisited node, put all the outgoing edges of that node that again lead to unvisited nodes into the heap
-            for(Edge edge: topNode.node.edgesLeaving) {
-                if(!visitedMap.containsKey(edge.successor.data)) {
-                    SearchNode newEdge = new SearchNode(edge.successor, topNode.cost + edge.data.doubleValue(), topNode);
-                    edgeHeap.add(newEdge);
-                }
+        if(searchStrategy == SearchStrategy.BIDIRECTIONAL) {
+            SearchNode endSearchNode = bidirectionalSearch(start, end);
+            if(endSearchNode == null) {
+                throw new NoSuchElementException("There is no directed path from " + start + " to " + end);
             }
+            return endSearchNode;
         }
+        MapADT<NodeType, SearchNode> visitedMap = search(start, end, Double.POSITIVE_INFINITY);
         // if the start node has no path that leads to the end node, throw an exception
         if(!visitedMap.containsKey(end)) {
             throw new NoSuchElementException("There is no directed path from " + start + " to " + end);
@@ -114,6 +196,141 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
         return visitedMap.get(end);
     }
 
+    /**
+     * This helper method finds the shortest path from start to end by running
+     * Dijkstra's algorithm forward from start along edgesLeaving, and backward
+     * from end along edgesEntering. Each step settles one node of whichever
+     * search has fewer SearchNodes waiting in its heap, which keeps the two
+     * searches about the same size. Within the backward search, the
+     * predecessor of a SearchNode is the next node on its path toward end, and
+     * legCost is the weight of the edge to that next node. Whenever either
+     * search reaches a node that the other has also reached, the two paths
+     * joined there form a path from start to end, and the cheapest of these
+     * is kept. Once the costs of the next nodes that the two searches would
+     * settle add up to at least the cost of the cheapest such path, no other
+     * path can cost less, so the search stops.
+     *
+     * The returned SearchNode holds this path just as computeShortestPath
+     * returns it, with its cost added up from start to end in path order, so
+     * that it is exactly the cost that a forward search finds for that path.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return SearchNode for the end node of the shortest path, or null when
+     *         there is no path from start to end
+     */
+    protected SearchNode bidirectionalSearch(NodeType start, NodeType end) {
+        PriorityQueue<SearchNode> forwardHeap = new PriorityQueue<>();
+        PriorityQueue<SearchNode> backwardHeap = new PriorityQueue<>();
+        // cheapest SearchNode found so far for each node reached by each
+        // search; since a SearchNode is only added to a heap when it becomes
+        // the cheapest, any other SearchNode in a heap is out of date
+        MapADT<NodeType, SearchNode> forwardBest = createMap();
+        MapADT<NodeType, SearchNode> backwardBest = createMap();
+        int settled = 0;
+
+        SearchNode startSearchNode = new SearchNode(nodes.get(start), 0, null, 0);
+        SearchNode endSearchNode = new SearchNode(nodes.get(end), 0, null, 0);
+        forwardHeap.add(startSearchNode);
+        forwardBest.put(start, startSearchNode);
+        backwardHeap.add(endSearchNode);
+        backwardBest.put(end, endSearchNode);
+
+        // the two halves of the cheapest path found so far, which meet at one node
+        SearchNode meetingForward = null;
+        SearchNode meetingBackward = null;
+        double bestCost = Double.POSITIVE_INFINITY;
+        if(start.equals(end)) {
+            meetingForward = startSearchNode;
+            meetingBackward = endSearchNode;
+            bestCost = 0;
+        }
+
+        boolean forward = true;
+        while(true) {
+            SearchNode forwardTop = nextCheapest(forwardHeap, forwardBest);
+            SearchNode backwardTop = nextCheapest(backwardHeap, backwardBest);
+            // once either search has settled everything it can reach, every
+            // path from start to end has been joined together already
+            if(forwardTop == null || backwardTop == null ||
+               forwardTop.cost + backwardTop.cost >= bestCost) {
+                break;
+            }
+            if(forward) {
+                forwardHeap.remove();
+                settled++;
+                for(Edge edge: forwardTop.node.edgesLeaving) {
+                    NodeType succ = edge.successor.data;
+                    double legCost = edge.data.doubleValue();
+                    double newCost = forwardTop.cost + legCost;
+                    // settled nodes already have the lowest cost, so never pass this
+                    if(forwardBest.containsKey(succ)) {
+                        if(forwardBest.get(succ).cost <= newCost) {
+                            continue;
+                        }
+                        forwardBest.remove(succ);
+                    }
+                    SearchNode newNode = new SearchNode(edge.successor, newCost, forwardTop, legCost);
+                    forwardHeap.add(newNode);
+                    forwardBest.put(succ, newNode);
+                    if(backwardBest.containsKey(succ) &&
+                       newCost + backwardBest.get(succ).cost < bestCost) {
+                        meetingForward = newNode;
+                        meetingBackward = backwardBest.get(succ);
+                        bestCost = newCost + meetingBackward.cost;
+                    }
+                }
+            } else {
+                backwardHeap.remove();
+                settled++;
+                for(Edge edge: backwardTop.node.edgesEntering) {
+                    NodeType pred = edge.predecessor.data;
+                    double legCost = edge.data.doubleValue();
+                    double newCost = backwardTop.cost + legCost;
+                    // settled nodes already have the lowest cost, so never pass this
+                    if(backwardBest.containsKey(pred)) {
+                        if(backwardBest.get(pred).cost <= newCost) {
+                            continue;
+                        }
+                        backwardBest.remove(pred);
+                    }
+                    SearchNode newNode = new SearchNode(edge.predecessor, newCost, backwardTop, legCost);
+                    backwardHeap.add(newNode);
+                    backwardBest.put(pred, newNode);
+                    if(forwardBest.containsKey(pred) &&
+                       newCost + forwardBest.get(pred).cost < bestCost) {
+                        meetingForward = forwardBest.get(pred);
+                        meetingBackward = newNode;
+                        bestCost = newCost + meetingForward.cost;
+                    }
+                }
+            }
+            // continue with the search whose frontier is smaller
+            forward = forwardHeap.size() <= backwardHeap.size();
+        }
+        settledCount = settled;
+        if(meetingForward == null) {
+            return null;
+        }
+        // extend the forward half of the path along the backward half to end
+        SearchNode current = meetingForward;
+        for(SearchNode next = meetingBackward; next.predecessor != null; next = next.predecessor) {
+            current = new SearchNode(next.predecessor.node, current.cost + next.legCost, current,
+                                     next.legCost);
+        }
+        return current;
+    }
+
+    // removes out of date SearchNodes from the top of heap, and returns the
+    // SearchNode now on top, or null when the heap is empty
+    private SearchNode nextCheapest(PriorityQueue<SearchNode> heap,
+                                    MapADT<NodeType, SearchNode> best) {
+        while(!heap.isEmpty() && best.get(heap.peek().node.data) != heap.peek()) {
+            heap.remove();
+        }
+        return heap.peek();
+    }
+
     /**
      * Returns the list of data values from nodes along the shortest path
      * from the node with the provided start value through the node with the
@@ -157,6 +374,86 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
         return computeShortestPath(start, end).cost;
     }
 
+    /**
+     * Returns the shortest path from the node containing the start data to the
+     * node containing the end data, along with the weight of each of its edges
+     * and its total cost. These are all read from the SearchNodes of a single
+     * run of Dijkstra's shortest path algorithm.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the nodes, edge weights, and cost of this shortest path
+     */
+    @Override
+    public RouteResult<NodeType> shortestPathRoute(NodeType start, NodeType end) {
+        List<NodeType> path = new ArrayList<>();
+        List<Double> legWeights = new ArrayList<>();
+        SearchNode endSearchNode = computeShortestPath(start, end);
+        for(SearchNode current = endSearchNode; current.predecessor != null; current = current.predecessor) {
+            path.add(current.node.data);
+            legWeights.add(current.legCost);
+        }
+        path.add(start);
+        // both lists are in reverse order, we have to reverse them
+        Collections.reverse(path);
+        Collections.reverse(legWeights);
+        return new RouteResult<>(path, legWeights, endSearchNode.cost);
+    }
+
+    /**
+     * Returns the cost of the shortest path from the node containing the
+     * start data to every node that can be reached from it at a cost of no
+     * more than maxCost. This uses a single run of Dijkstra's algorithm, which
+     * stops once every path left to expand costs more than maxCost.
+     *
+     * @param start   the data item in the starting node for the paths
+     * @param maxCost the largest path cost that a node may be reached within
+     * @return map from the data in each node reachable within maxCost to the
+     *         cost of the shortest path to it
+     */
+    @Override
+    public MapADT<NodeType, Double> shortestPathCostsWithin(NodeType start, double maxCost) {
+        MapADT<NodeType, Double> costs = createMap();
+        MapADT<NodeType, SearchNode> visitedMap = search(start, null, maxCost);
+        for(NodeType data: visitedMap.getKeys()) {
+            costs.put(data, visitedMap.get(data).cost);
+        }
+        return costs;
+    }
+
+    /**
+     * Sets the algorithm that this graph finds the shortest path between two
+     * nodes with, which is SearchStrategy.FORWARD unless set otherwise. Both
+     * algorithms find paths of the same cost. Searches for every node within
+     * a cost of one start node always run forward.
+     *
+     * @param strategy the algorithm to find shortest paths with
+     */
+    public void setSearchStrategy(SearchStrategy strategy) {
+        searchStrategy = strategy;
+    }
+
+    /**
+     * Returns the algorithm that this graph finds the shortest path between
+     * two nodes with.
+     *
+     * @return the current search strategy
+     */
+    public SearchStrategy getSearchStrategy() {
+        return searchStrategy;
+    }
+
+    /**
+     * Returns the number of nodes that were settled by the most recent search
+     * through this graph, which shows how much of the graph that search had
+     * to explore.
+     *
+     * @return the number of nodes settled by the most recent search
+     */
+    public int getSettledCount() {
+        return settledCount;
+    }
+
     // TODO: implement 3+ tests in step 4.1
     /**
      * Test1: Verify that the shortest path and cost from node "A" and node "H" are computed correctly using Dijkstra's algorithm.
@@ -0,0 +1,205 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests the shortest path searches of DijkstraGraph on a small
+ * graph whose shortest paths are easy to work out by hand.
+ */
+public class DijkstraGraphTests {
+
+    // creates the graph used by each of the tests below
+    private static DijkstraGraph<String, Integer> createGraph() {
+        return addNodesAndEdges(new DijkstraGraph<>());
+    }
+
+    // inserts the nodes and edges used by each of the tests below into graph
+    private static DijkstraGraph<String, Integer> addNodesAndEdges(DijkstraGraph<String, Integer> graph) {
+        for (String node : List.of("A", "B", "C", "D", "E", "F", "G", "H"))
+            graph.insertNode(node);
+        graph.insertEdge("A", "B", 4);
+        graph.insertEdge("A", "E", 15);
+        graph.insertEdge("B", "E", 10);
+        graph.insertEdge("A", "C", 2);
+        graph.insertEdge("B", "D", 1);
+        graph.insertEdge("C", "D", 5);
+        graph.insertEdge("D", "E", 3);
+        graph.insertEdge("D", "F", 1);
+        graph.insertEdge("F", "D", 2);
+        graph.insertEdge("F", "H", 4);
+        graph.insertEdge("G", "H", 4);
+        return graph;
+    }
+
+    /**
+     * Test that the shortest path and its cost from "A" to "H" are found.
+     */
+    @Test
+    public void testShortestPath() {
+        DijkstraGraph<String, Integer> graph = createGraph();
+        Assertions.assertEquals(List.of("A", "B", "D", "F", "H"), graph.shortestPathData("A", "H"));
+        Assertions.assertEquals(10.0, graph.shortestPathCost("A", "H"));
+        Assertions.assertThrows(NoSuchElementException.class, () -> graph.shortestPathData("C", "B"));
+    }
+
+    /**
+     * Test that shortestPathCostsWithin returns exactly the nodes reachable
+     * from "A" within the cost limit, each with its shortest path cost.
+     */
+    @Test
+    public void testShortestPathCostsWithin() {
+        DijkstraGraph<String, Integer> graph = createGraph();
+        MapADT<String, Double> costs = graph.shortestPathCostsWithin("A", 6);
+        Assertions.assertEquals(5, costs.getSize());
+        Assertions.assertEquals(0.0, costs.get("A"));
+        Assertions.assertEquals(4.0, costs.get("B"));
+        Assertions.assertEquals(2.0, costs.get("C"));
+        Assertions.assertEquals(5.0, costs.get("D"));
+        Assertions.assertEquals(6.0, costs.get("F"));
+        Assertions.assertFalse(costs.containsKey("E"));
+        // every cost agrees with a full point to point search
+        for (String node : costs.getKeys())
+            Assertions.assertEquals(graph.shortestPathCost("A", node), costs.get(node));
+        Assertions.assertThrows(NoSuchElementException.class,
+                () -> graph.shortestPathCostsWithin("Z", 6));
+    }
+
+    /**
+     * Test that a point to point search stops once the end node is settled,
+     * rather than settling every node reachable from the start.
+     */
+    @Test
+    public void testSearchStopsAtEnd() {
+        DijkstraGraph<String, Integer> graph = createGraph();
+        Assertions.assertEquals(2.0, graph.shortestPathCost("A", "C"));
+        Assertions.assertEquals(2, graph.getSettledCount());
+        graph.shortestPathCostsWithin("A", Double.POSITIVE_INFINITY);
+        Assertions.assertEquals(7, graph.getSettledCount());
+    }
+
+    /**
+     * Test that shortestPathRoute returns the same path and cost as the
+     * separate methods, along with the weight of each edge on that path.
+     */
+    @Test
+    public void testShortestPathRoute() {
+        DijkstraGraph<String, Integer> graph = createGraph();
+        RouteResult<String> route = graph.shortestPathRoute("A", "H");
+        Assertions.assertEquals(graph.shortestPathData("A", "H"), route.getNodes());
+        Assertions.assertEquals(List.of(4.0, 1.0, 1.0, 4.0), route.getLegWeights());
+        Assertions.assertEquals(graph.shortestPathCost("A", "H"), route.getTotalCost());
+    }
+
+    /**
+     * Test that a graph that stores its nodes in a ProbingHashtableMap finds
+     * the same shortest paths as one that uses the default HashtableMap.
+     */
+    @Test
+    public void testProbingHashtableMap() {
+        DijkstraGraph<String, Integer> graph = createGraph();
+        DijkstraGraph<String, Integer> probing = addNodesAndEdges(new DijkstraGraph<>(new ProbingHashtableMap<>()));
+        for (String start : graph.getAllNodes())
+            for (String end : graph.getAllNodes())
+                if (graph.shortestPathCostsWithin(start, Double.POSITIVE_INFINITY).containsKey(end))
+                    Assertions.assertEquals(graph.shortestPathRoute(start, end).getNodes(),
+                            probing.shortestPathRoute(start, end).getNodes());
+        Assertions.assertEquals(5, probing.shortestPathCostsWithin("A", 6).getSize());
+    }
+
+    /**
+     * Test that several threads searching one shared graph at once find the
+     * same shortest path costs as searching it from a single thread.
+     */
+    @Test
+    public void testConcurrentSearches() throws Exception {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        new Backend<String>(graph).loadGraphData("campus.dot");
+        List<String> locations = graph.getAllNodes();
+        double[][] expected = new double[locations.size()][locations.size()];
+        for (int i = 0; i < locations.size(); i++)
+            for (int j = 0; j < locations.size(); j++)
+                expected[i][j] = graph.shortestPathCost(locations.get(i), locations.get(j));
+
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int offset = t;
+                results.add(threads.submit(() -> {
+                    // each thread visits the pairs in a different order
+                    for (int k = 0; k < locations.size(); k++) {
+                        int i = (k + offset * 20) % locations.size();
+                        for (int j = 0; j < locations.size(); j++)
+                            if (graph.shortestPathCost(locations.get(i), locations.get(j)) != expected[i][j])
+                                return false;
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results)
+                Assertions.assertTrue(result.get());
+        } finally {
+            threads.shutdown();
+        }
+    }
+
+    /**
+     * Test that bidirectional searches find exactly the same routes and costs
+     * as forward searches between every pair of nodes of the small graph, and
+     * equally short routes between every pair of nodes of campus.dot, while
+     * settling fewer nodes in total there.
+     */
+    @Test
+    public void testBidirectionalSearch() throws Exception {
+        DijkstraGraph<String, Integer> forward = createGraph();
+        DijkstraGraph<String, Integer> bidirectional = createGraph();
+        bidirectional.setSearchStrategy(DijkstraGraph.SearchStrategy.BIDIRECTIONAL);
+        for (String start : forward.getAllNodes())
+            for (String end : forward.getAllNodes()) {
+                if (!forward.shortestPathCostsWithin(start, Double.POSITIVE_INFINITY).containsKey(end)) {
+                    Assertions.assertThrows(NoSuchElementException.class,
+                            () -> bidirectional.shortestPathRoute(start, end));
+                    continue;
+                }
+                RouteResult<String> expected = forward.shortestPathRoute(start, end);
+                RouteResult<String> actual = bidirectional.shortestPathRoute(start, end);
+                Assertions.assertEquals(expected.getNodes(), actual.getNodes());
+                Assertions.assertEquals(expected.getLegWeights(), actual.getLegWeights());
+                Assertions.assertEquals(expected.getTotalCost(), actual.getTotalCost());
+            }
+
+        DijkstraGraph<String, Double> campus = new DijkstraGraph<>();
+        new Backend<String>(campus).loadGraphData("campus.dot");
+        long forwardSettled = 0;
+        long bidirectionalSettled = 0;
+        for (String start : campus.getAllNodes())
+            for (String end : campus.getAllNodes()) {
+                campus.setSearchStrategy(DijkstraGraph.SearchStrategy.FORWARD);
+                double expectedCost = campus.shortestPathCost(start, end);
+                forwardSettled += campus.getSettledCount();
+                campus.setSearchStrategy(DijkstraGraph.SearchStrategy.BIDIRECTIONAL);
+                // paths that tie may round to costs that differ in their last bit
+                Assertions.assertEquals(expectedCost, campus.shortestPathCost(start, end), 1e-9);
+                bidirectionalSettled += campus.getSettledCount();
+                // where several paths tie for shortest, either may be returned,
+                // so check that the route found is one of them
+                RouteResult<String> route = campus.shortestPathRoute(start, end);
+                List<String> nodes = route.getNodes();
+                double cost = 0;
+                for (int i = 1; i < nodes.size(); i++) {
+                    Assertions.assertEquals(campus.getEdge(nodes.get(i - 1), nodes.get(i)),
+                            route.getLegWeights().get(i - 1));
+                    cost += route.getLegWeights().get(i - 1);
+                }
+                Assertions.assertEquals(start, nodes.get(0));
+                Assertions.assertEquals(end, nodes.get(nodes.size() - 1));
+                Assertions.assertEquals(expectedCost, cost, 1e-9);
+            }
+        Assertions.assertTrue(bidirectionalSettled < forwardSettled);
+    }
+}
@@ -0,0 +1,378 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This DotParser reads the edge statements of a dot file, such as
+ *     "Memorial Union" -> "Science Hall" [seconds=105.8];
+ * in a single pass over its own character buffer, without splitting lines
+ * into Strings or using regular expressions. Each node name is interned:
+ * every distinct name becomes one String with an int id (ids count up from 0
+ * in the order names are first seen), and later occurrences of that name are
+ * matched against the buffered characters without creating a new String.
+ *
+ * Names may be quoted, in which case they can contain any characters,
+ * including "->", commas and semicolons, and \" stands for a quote. The
+ * seconds attribute is read directly from the buffered characters as well,
+ * and any other attributes of an edge are skipped. Statements other than
+ * edges, such as the opening digraph line, are skipped, as are comments.
+ */
+public class DotParser {
+
+    // powers of ten that are exactly representable as doubles
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private final Reader in;
+    private final char[] buffer = new char[1 << 16];
+    private int position = 0; // index of the next unread char in buffer
+    private int limit = 0; // number of chars that buffer holds
+    private int line = 1; // line of the next unread char, for error messages
+
+    // characters of the most recently read name or value
+    private char[] token = new char[64];
+    private int tokenLength = 0;
+
+    // interned names, indexed by id
+    private final List<String> names = new ArrayList<>();
+    // open addressing table from the hash of a name to its id: each slot is
+    // an id (-1 if empty) followed by the hash of that name, so that probing
+    // a slot only touches one place in memory
+    private int[] table = new int[2 * 1024];
+
+    // the edge most recently returned by nextEdge()
+    private int predecessor = -1;
+    private int successor = -1;
+    private double seconds = 0;
+
+    /**
+     * Creates a parser that reads a dot file from in. The parser buffers its
+     * own reads, so in does not need to be buffered.
+     *
+     * @param in the source of the dot file
+     */
+    public DotParser(Reader in) {
+        this.in = in;
+        Arrays.fill(table, -1);
+    }
+
+    /**
+     * Reads up to and including the next edge statement, which then becomes
+     * available through getPredecessor(), getSuccessor() and getSeconds().
+     *
+     * @return true if an edge was read, or false at the end of the file
+     * @throws IOException if reading fails, or an edge statement is malformed
+     *                     or has no seconds attribute
+     */
+    public boolean nextEdge() throws IOException {
+        while (true) {
+            int c = skipSpace();
+            if (c == -1)
+                return false;
+            if (c == '{' || c == '}' || c == ';' || c == ',') {
+                position++;
+                continue;
+            }
+            // read the first name, and only intern it if this is an edge
+            readName();
+            if (skipSpace() != '-') {
+                skipStatement();
+                continue;
+            }
+            position++;
+            if (read() != '>')
+                throw error("expected -> between node names");
+            predecessor = intern();
+            skipSpace();
+            readName();
+            successor = intern();
+            readAttributes();
+            return true;
+        }
+    }
+
+    /**
+     * Returns the id of the predecessor node of the most recently read edge.
+     *
+     * @return index of that node's name within getNames()
+     */
+    public int getPredecessor() {
+        return predecessor;
+    }
+
+    /**
+     * Returns the id of the successor node of the most recently read edge.
+     *
+     * @return index of that node's name within getNames()
+     */
+    public int getSuccessor() {
+        return successor;
+    }
+
+    /**
+     * Returns the seconds attribute of the most recently read edge.
+     *
+     * @return the walking time along that edge in seconds
+     */
+    public double getSeconds() {
+        return seconds;
+    }
+
+    /**
+     * Returns every distinct node name read so far, indexed by id.
+     *
+     * @return list of interned node names, in the order first seen
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    // makes sure buffer holds at least one unread char, returning false at EOF
+    private boolean fill() throws IOException {
+        if (position < limit)
+            return true;
+        limit = in.read(buffer, 0, buffer.length);
+        position = 0;
+        if (limit <= 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    // returns the next char without consuming it, or -1 at the end of the file
+    private int peek() throws IOException {
+        return fill() ? buffer[position] : -1;
+    }
+
+    // consumes and returns the next char, or -1 at the end of the file
+    private int read() throws IOException {
+        if (!fill())
+            return -1;
+        char c = buffer[position++];
+        if (c == '\n')
+            line++;
+        return c;
+    }
+
+    // skips whitespace and comments, and returns the next char without consuming it
+    private int skipSpace() throws IOException {
+        while (true) {
+            int c = peek();
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                read();
+            } else if (c == '#') {
+                skipLine();
+            } else if (c == '/') {
+                read();
+                int next = read();
+                if (next == '/') {
+                    skipLine();
+                } else if (next == '*') {
+                    int previous = 0;
+                    for (next = read(); next != -1 && !(previous == '*' && next == '/'); next = read())
+                        previous = next;
+                } else {
+                    throw error("unexpected /");
+                }
+            } else {
+                return c;
+            }
+        }
+    }
+
+    // skips the rest of the current line
+    private void skipLine() throws IOException {
+        for (int c = read(); c != -1 && c != '\n'; c = read())
+            ;
+    }
+
+    // skips a statement that is not an edge, up to its end, without consuming
+    // any brace that ends it
+    private void skipStatement() throws IOException {
+        for (int c = peek(); c != -1; c = peek()) {
+            if (c == '{' || c == '}')
+                return;
+            read();
+            if (c == ';' || c == '\n')
+                return;
+            if (c == '"') // skip quoted text, which may hold any of the above
+                for (int q = read(); q != -1 && q != '"'; q = read())
+                    if (q == '\\')
+                        read();
+        }
+    }
+
+    // appends c to token, growing it when full
+    private void appendToken(int c) {
+        if (tokenLength == token.length)
+            token = Arrays.copyOf(token, token.length * 2);
+        token[tokenLength++] = (char) c;
+    }
+
+    // reads a quoted or unquoted name or value into token
+    private void readName() throws IOException {
+        tokenLength = 0;
+        int c = peek();
+        if (c == '"') {
+            read();
+            for (c = read(); c != '"'; c = read()) {
+                if (c == -1)
+                    throw error("unterminated quoted name");
+                if (c == '\\') {
+                    int next = read();
+                    if (next == '\n')
+                        continue; // an escaped newline continues the name
+                    if (next != '"')
+                        appendToken(c);
+                    c = next;
+                }
+                appendToken(c);
+            }
+        } else {
+            while (c != -1 && (Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '-')) {
+                // a - can only start a number, so any other - begins the next ->
+                if (c == '-' && tokenLength > 0)
+                    break;
+                appendToken(read());
+                c = peek();
+            }
+            if (tokenLength == 0)
+                throw error("expected a node name");
+        }
+    }
+
+    // returns the id of the name in token, adding it to names if it is new
+    private int intern() {
+        int hash = 0;
+        for (int i = 0; i < tokenLength; i++)
+            hash = 31 * hash + token[i];
+        int mask = table.length / 2 - 1;
+        for (int slot = slotOf(hash); table[2 * slot] >= 0; slot = (slot + 1) & mask) {
+            if (table[2 * slot + 1] != hash)
+                continue;
+            String name = names.get(table[2 * slot]);
+            if (name.length() == tokenLength && matchesToken(name))
+                return table[2 * slot];
+        }
+        int id = names.size();
+        names.add(new String(token, 0, tokenLength));
+        insertId(id, hash);
+        // keep the table at most half full, so that probe runs stay short
+        if (4 * names.size() > table.length) {
+            int[] oldTable = table;
+            table = new int[oldTable.length * 2];
+            Arrays.fill(table, -1);
+            for (int i = 0; i < oldTable.length; i += 2)
+                if (oldTable[i] >= 0)
+                    insertId(oldTable[i], oldTable[i + 1]);
+        }
+        return id;
+    }
+
+    // returns the first slot to probe for hash; names like "Location 1",
+    // "Location 2", ... have consecutive hashes, which would fill long runs of
+    // neighboring slots, so the hash is scrambled before picking a slot
+    private int slotOf(int hash) {
+        return (hash * 0x9E3779B9) >>> (33 - Integer.numberOfTrailingZeros(table.length));
+    }
+
+    // stores id in the first free slot of the table for this hash
+    private void insertId(int id, int hash) {
+        int mask = table.length / 2 - 1;
+        int slot = slotOf(hash);
+        while (table[2 * slot] >= 0)
+            slot = (slot + 1) & mask;
+        table[2 * slot] = id;
+        table[2 * slot + 1] = hash;
+    }
+
+    // checks whether name holds the same chars as token
+    private boolean matchesToken(String name) {
+        for (int i = 0; i < tokenLength; i++)
+            if (name.charAt(i) != token[i])
+                return false;
+        return true;
+    }
+
+    // reads an optional [key=value, ...] list, keeping only the seconds value,
+    // followed by the optional ; that ends the statement
+    private void readAttributes() throws IOException {
+        boolean foundSeconds = false;
+        if (skipSpace() == '[') {
+            read();
+            while (skipSpace() != ']') {
+                if (peek() == -1)
+                    throw error("unterminated attribute list");
+                if (peek() == ',' || peek() == ';') {
+                    read();
+                    continue;
+                }
+                readName();
+                boolean isSeconds = tokenLength == 7 && matchesToken("seconds");
+                if (skipSpace() != '=')
+                    throw error("expected = after attribute name");
+                read();
+                skipSpace();
+                readName();
+                if (isSeconds) {
+                    seconds = parseToken();
+                    foundSeconds = true;
+                }
+            }
+            read();
+        }
+        if (!foundSeconds)
+            throw error("edge has no seconds attribute");
+        if (skipSpace() == ';')
+            read();
+    }
+
+    // parses the number in token, without creating a String when it has at
+    // most 15 significant digits: those digits, and the power of ten they are
+    // divided by, are then both exact doubles, so one division rounds correctly
+    private double parseToken() throws IOException {
+        int i = 0;
+        boolean negative = false;
+        if (tokenLength > 0 && (token[0] == '-' || token[0] == '+')) {
+            negative = token[0] == '-';
+            i++;
+        }
+        long digits = 0;
+        int digitCount = 0;
+        int fractionDigits = 0;
+        boolean inFraction = false;
+        boolean simple = i < tokenLength;
+        for (; i < tokenLength && simple; i++) {
+            char c = token[i];
+            if (c >= '0' && c <= '9') {
+                digits = 10 * digits + (c - '0');
+                if (digits > 0)
+                    digitCount++;
+                if (inFraction)
+                    fractionDigits++;
+            } else if (c == '.' && !inFraction) {
+                inFraction = true;
+            } else {
+                simple = false; // exponents and anything unusual
+            }
+        }
+        if (simple && digitCount <= 15 && fractionDigits < POWERS_OF_TEN.length) {
+            double value = digits / POWERS_OF_TEN[fractionDigits];
+            return negative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(new String(token, 0, tokenLength));
+        } catch (NumberFormatException e) {
+            throw error("seconds is not a number");
+        }
+    }
+
+    // creates an exception describing a problem at the current line
+    private IOException error(String problem) {
+        return new IOException("Line " + line + " of dot file: " + problem);
+    }
+}
@@ -0,0 +1,90 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests the DotParser that Backend.loadGraphData reads dot files with.
+ */
+public class DotParserTests {
+
+    /**
+     * Test that quoted names may hold characters that separate statements
+     * elsewhere, that comments and statements other than edges are skipped,
+     * and that each distinct name gets one id in the order names are first seen.
+     */
+    @Test
+    public void testQuotedNamesAndSkippedStatements() throws IOException {
+        String dot = "digraph campus {\n" +
+                "  node [shape=box];\n" +
+                "  // a comment with \"A\" -> \"B\" [seconds=1];\n" +
+                "  \"Union -> South\" -> \"Hall, \\\"Old\\\"\" [seconds=12.5];\n" +
+                "  /* another\n comment */ \"Hall, \\\"Old\\\"\" -> Library [color=red, seconds=\"7\"]\n" +
+                "  \"Union -> South\" -> Library [seconds=1e2];\n" +
+                "}\n";
+        DotParser parser = new DotParser(new StringReader(dot));
+        Assertions.assertTrue(parser.nextEdge());
+        Assertions.assertEquals(0, parser.getPredecessor());
+        Assertions.assertEquals(1, parser.getSuccessor());
+        Assertions.assertEquals(12.5, parser.getSeconds());
+        Assertions.assertTrue(parser.nextEdge());
+        Assertions.assertEquals(1, parser.getPredecessor());
+        Assertions.assertEquals(2, parser.getSuccessor());
+        Assertions.assertEquals(7.0, parser.getSeconds());
+        Assertions.assertTrue(parser.nextEdge());
+        Assertions.assertEquals(0, parser.getPredecessor());
+        Assertions.assertEquals(2, parser.getSuccessor());
+        Assertions.assertEquals(100.0, parser.getSeconds());
+        Assertions.assertFalse(parser.nextEdge());
+        Assertions.assertEquals(List.of("Union -> South", "Hall, \"Old\"", "Library"), parser.getNames());
+    }
+
+    /**
+     * Test that every edge of campus.dot is read with the same names and the
+     * exact same seconds as splitting each of its lines apart.
+     */
+    @Test
+    public void testCampusEdgesMatchLines() throws IOException {
+        try (BufferedReader lines = new BufferedReader(new FileReader("campus.dot"));
+                FileReader reader = new FileReader("campus.dot")) {
+            DotParser parser = new DotParser(reader);
+            int edges = 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                String[] parts = line.replace(";", "").trim().split(" -> ");
+                if (parts.length < 2)
+                    continue;
+                String[] nameAndWeight = parts[1].split("\\[seconds=");
+                Assertions.assertTrue(parser.nextEdge());
+                Assertions.assertEquals(parts[0].replace("\"", "").trim(),
+                        parser.getNames().get(parser.getPredecessor()));
+                Assertions.assertEquals(nameAndWeight[0].replace("\"", "").trim(),
+                        parser.getNames().get(parser.getSuccessor()));
+                Assertions.assertEquals(Double.parseDouble(nameAndWeight[1].replace("]", "").trim()),
+                        parser.getSeconds());
+                edges++;
+            }
+            Assertions.assertFalse(parser.nextEdge());
+            Assertions.assertTrue(edges > 0);
+        }
+    }
+
+    /**
+     * Test that malformed edges are reported with the line they are on.
+     */
+    @Test
+    public void testMalformedEdges() {
+        DotParser missingSeconds = new DotParser(new StringReader("digraph {\n\"A\" -> \"B\" [color=red];\n}"));
+        IOException e = Assertions.assertThrows(IOException.class, () -> missingSeconds.nextEdge());
+        Assertions.assertTrue(e.getMessage().startsWith("Line 2"));
+
+        DotParser unterminated = new DotParser(new StringReader("\"A\" -> \"B [seconds=3];\n"));
+        Assertions.assertThrows(IOException.class, () -> unterminated.nextEdge());
+
+        DotParser notANumber = new DotParser(new StringReader("A -> B [seconds=fast];"));
+        Assertions.assertThrows(IOException.class, () -> notANumber.nextEdge());
+    }
+}
@@ -8,14 +8,6 @@ public class Frontend implements FrontendInterface {
         this.backend = backend;
     }
 
-    private Double totalCost(List<Double> timesList) {
-        Double sum = 0.0;
-        for(int i = 0; i < timesList.size(); i++) {
-            sum += timesList.get(i);
-        }
-        return sum;
-    }
-
     /**
      * Returns an HTML fragment that can be embedded within the body of a
      * larger html page. 
@@ -47,12 +39,12 @@ public class Frontend implements FrontendInterface {
     public String generateShortestPathResponseHTML(String start, String end) {
         StringBuilder responseHTML = new StringBuilder();
         try {
-            List<String> locationsOnPath = backend.findLocationsOnShortestPath(start, end);
-            if(locationsOnPath.isEmpty()) {
+            // one backend call gives both the locations and the total time
+            RouteResult<String> route = backend.findRouteOnShortestPath(start, end);
+            if(route.isEmpty()) {
                 return "<p>No path found between " + start + " and " + end + ".</p>";
             }
-
-            List<Double> timesOnPath = backend.findTimesOnShortestPath(start, end);
+            List<String> locationsOnPath = route.getNodes();
 
             responseHTML.append("<p>Shortest path from " + start + " to " + end + ":</p>");// a paragraph (p) that describes the path's start and end locations
             responseHTML.append("<ol>"); // an ordered list (ol) of locations along that shortest path
@@ -61,7 +53,7 @@ public class Frontend implements FrontendInterface {
             }
             responseHTML.append("</ol>");
 
-            responseHTML.append("<p>Total travel time: " + totalCost(timesOnPath) + " seconds.</p>");// a paragraph (p) that includes the total travel time along this path
+            responseHTML.append("<p>Total travel time: " + route.getTotalCost() + " seconds.</p>");// a paragraph (p) that includes the total travel time along this path
             return responseHTML.toString();
         } catch (NoSuchElementException e) {
             return "<p>No path found between " + start + " and " + end + ".</p>"; // if there is no such path, the HTML returned indicates the kind of problem encountered.
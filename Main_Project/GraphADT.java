@@ -106,6 +106,16 @@ public interface GraphADT<NodeType, EdgeType extends Number> {
    */
   public int getEdgeCount();
 
+  /**
+   * Returns a number that changes whenever a node or edge is inserted into or
+   * removed from this graph, or the weight of an edge changes. Results worked
+   * out from the graph can be kept along with its version, and reused for as
+   * long as that version stays the same.
+   *
+   * @return the current version of this graph
+   */
+  public long getVersion();
+
   /**
    * Returns the list of data values from nodes along the shortest path from 
    * the node with the provided start value through the node with the provided
@@ -137,5 +147,35 @@ public interface GraphADT<NodeType, EdgeType extends Number> {
    *         start node to the end node
    */
   public double shortestPathCost(NodeType start, NodeType end);
+
+  /**
+   * Returns the shortest path from the node containing the start data to the
+   * node containing the end data as a RouteResult, which holds the data from
+   * each node along the path, the weight of each edge on it, and its total 
+   * cost. All of these are found by a single shortest path search.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end the data item in the destination node for the path
+   * @return the nodes, edge weights, and cost of the shortest path
+   * @throws NoSuchElementException if either the start or end node cannot
+   *         be found in the graph, or if there is no directed path from the
+   *         start node to the end node
+   */
+  public RouteResult<NodeType> shortestPathRoute(NodeType start, NodeType end);
+
+  /**
+   * Returns the cost of the shortest path from the node containing the start
+   * data to every node that can be reached from it at a cost of no more than
+   * maxCost. All of these costs are found by a single search from the start
+   * node, which stops expanding paths once their cost exceeds maxCost.
+   *
+   * @param start the data item in the starting node for the paths
+   * @param maxCost the largest path cost that a node may be reached within
+   * @return a map from the data in each node reachable within maxCost to the
+   *         cost of the shortest path to it, including the start node itself
+   * @throws NoSuchElementException if the start node cannot be found in the
+   *         graph
+   */
+  public MapADT<NodeType, Double> shortestPathCostsWithin(NodeType start, double maxCost);
     
 }
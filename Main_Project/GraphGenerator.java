@@ -0,0 +1,235 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This GraphGenerator writes synthetic campus-like graphs to dot files, in the
+ * same "A" -> "B" [seconds=x]; format as campus.dot, so that they can be
+ * loaded by Backend.loadGraphData for load and scaling tests. Every edge is
+ * written once, since the Backend inserts each edge in both directions.
+ *
+ * Three topologies are supported, each of any size up to millions of nodes:
+ * - grid: locations on a square grid, each linked to its 4 neighbors
+ * - geometric: locations at random points, linked to every location within
+ *   walking distance of them (a random geometric graph), and a location with
+ *   none within that distance linked to its nearest one instead
+ * - scalefree: each new location links to 2 existing ones, chosen with
+ *   probability proportional to how many links they already have, which
+ *   produces a few very well connected hubs (a Barabasi-Albert graph)
+ * Every location is linked to at least one other, so a graph always has
+ * exactly nodeCount locations (except that a grid is rounded down to a
+ * square number). A geometric graph may still fall apart into several
+ * groups of locations that cannot reach each other.
+ * The same topology, node count and seed always produce the same file.
+ *
+ * Usage: java GraphGenerator grid|geometric|scalefree nodeCount seed file.dot
+ */
+public class GraphGenerator {
+
+    // walking speed used to turn distances in meters into seconds
+    private static final double METERS_PER_SECOND = 1.4;
+    // distance between neighboring locations of a grid, in meters
+    private static final double GRID_SPACING = 150;
+    // average number of links per location in a geometric graph
+    private static final double GEOMETRIC_DEGREE = 6;
+    // number of existing locations each new scale-free location links to
+    private static final int SCALE_FREE_LINKS = 2;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4)
+            throw new IllegalArgumentException("Usage: java GraphGenerator " +
+                    "grid|geometric|scalefree nodeCount seed file.dot");
+        int nodeCount = Integer.parseInt(args[1]);
+        long seed = Long.parseLong(args[2]);
+        long startTime = System.nanoTime();
+        try (Writer out = new BufferedWriter(new FileWriter(args[3]), 1 << 16)) {
+            generate(args[0], nodeCount, seed, out);
+        }
+        System.out.println("Wrote " + args[0] + " graph with " + nodeCount + " nodes to " +
+                args[3] + " in " + (System.nanoTime() - startTime) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Writes a complete dot file for a graph of this topology to out.
+     *
+     * @param topology  "grid", "geometric" or "scalefree"
+     * @param nodeCount number of locations in the graph (a grid is rounded
+     *                  down to the nearest square number)
+     * @param seed      seed for every random choice made
+     * @param out       where the dot file is written
+     * @throws IOException              if writing to out fails
+     * @throws IllegalArgumentException if topology is not recognized or
+     *                                  nodeCount is less than 2
+     */
+    public static void generate(String topology, int nodeCount, long seed, Writer out)
+            throws IOException {
+        if (nodeCount < 2)
+            throw new IllegalArgumentException("A graph needs at least 2 nodes.");
+        Random random = new Random(seed);
+        out.write("digraph campus {\n");
+        switch (topology) {
+            case "grid":
+                writeGrid(nodeCount, random, out);
+                break;
+            case "geometric":
+                writeGeometric(nodeCount, random, out);
+                break;
+            case "scalefree":
+                writeScaleFree(nodeCount, random, out);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown topology: " + topology);
+        }
+        out.write("}\n");
+    }
+
+    // writes one edge between locations a and b in the format of campus.dot
+    private static void writeEdge(Writer out, int a, int b, double seconds) throws IOException {
+        out.write("\t\"Location ");
+        out.write(Integer.toString(a));
+        out.write("\" -> \"Location ");
+        out.write(Integer.toString(b));
+        out.write("\" [seconds=");
+        out.write(Double.toString(seconds));
+        out.write("];\n");
+    }
+
+    // writes a square grid, with each walk taking 70% to 130% of the usual time
+    private static void writeGrid(int nodeCount, Random random, Writer out) throws IOException {
+        int side = (int) Math.sqrt(nodeCount);
+        double seconds = GRID_SPACING / METERS_PER_SECOND;
+        for (int row = 0; row < side; row++)
+            for (int col = 0; col < side; col++) {
+                int node = row * side + col;
+                if (col + 1 < side)
+                    writeEdge(out, node, node + 1, seconds * (0.7 + 0.6 * random.nextDouble()));
+                if (row + 1 < side)
+                    writeEdge(out, node, node + side, seconds * (0.7 + 0.6 * random.nextDouble()));
+            }
+    }
+
+    // writes a random geometric graph: points are spread over a square sized
+    // so that there is one location per GRID_SPACING^2, and any two points
+    // within the radius that gives GEOMETRIC_DEGREE links on average are linked.
+    // A point with no other point within the radius is linked to its nearest
+    // one, since a location without links would never appear in the file
+    private static void writeGeometric(int nodeCount, Random random, Writer out) throws IOException {
+        double size = Math.sqrt(nodeCount) * GRID_SPACING;
+        double radius = GRID_SPACING * Math.sqrt(GEOMETRIC_DEGREE / Math.PI);
+        double[] x = new double[nodeCount];
+        double[] y = new double[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            x[i] = random.nextDouble() * size;
+            y[i] = random.nextDouble() * size;
+        }
+
+        // bucket points into square cells as wide as the radius, so that each
+        // point only needs to be compared with points in neighboring cells
+        int cells = Math.max(1, (int) (size / radius));
+        int[] cellStart = new int[cells * cells + 1];
+        int[] cellOf = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            int cx = Math.min(cells - 1, (int) (x[i] / radius));
+            int cy = Math.min(cells - 1, (int) (y[i] / radius));
+            cellOf[i] = cy * cells + cx;
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < cells * cells; c++)
+            cellStart[c + 1] += cellStart[c];
+        int[] cellPoints = new int[nodeCount];
+        int[] filled = Arrays.copyOf(cellStart, cells * cells);
+        for (int i = 0; i < nodeCount; i++)
+            cellPoints[filled[cellOf[i]]++] = i;
+
+        boolean[] linked = new boolean[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            int cx = cellOf[i] % cells;
+            int cy = cellOf[i] / cells;
+            for (int ny = Math.max(0, cy - 1); ny <= Math.min(cells - 1, cy + 1); ny++)
+                for (int nx = Math.max(0, cx - 1); nx <= Math.min(cells - 1, cx + 1); nx++) {
+                    int cell = ny * cells + nx;
+                    for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                        int j = cellPoints[k];
+                        // write each pair once, from the lower numbered location
+                        if (j <= i)
+                            continue;
+                        double distance = Math.hypot(x[i] - x[j], y[i] - y[j]);
+                        if (distance <= radius) {
+                            writeEdge(out, i, j, Math.max(1, distance) / METERS_PER_SECOND);
+                            linked[i] = linked[j] = true;
+                        }
+                    }
+                }
+        }
+
+        for (int i = 0; i < nodeCount; i++) {
+            if (linked[i])
+                continue;
+            // search rings of cells ever further from the point, until no
+            // point in the next ring can be nearer than the nearest one found
+            int cx = cellOf[i] % cells;
+            int cy = cellOf[i] / cells;
+            int nearest = -1;
+            double nearestDistance = Double.POSITIVE_INFINITY;
+            for (int ring = 0; ring < cells && (ring - 1) * radius < nearestDistance; ring++)
+                for (int ny = Math.max(0, cy - ring); ny <= Math.min(cells - 1, cy + ring); ny++)
+                    for (int nx = Math.max(0, cx - ring); nx <= Math.min(cells - 1, cx + ring); nx++) {
+                        // only the cells on the edge of this ring are new
+                        if (Math.abs(ny - cy) != ring && Math.abs(nx - cx) != ring)
+                            continue;
+                        int cell = ny * cells + nx;
+                        for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                            int j = cellPoints[k];
+                            double distance = Math.hypot(x[i] - x[j], y[i] - y[j]);
+                            if (j != i && distance < nearestDistance) {
+                                nearest = j;
+                                nearestDistance = distance;
+                            }
+                        }
+                    }
+            writeEdge(out, i, nearest, Math.max(1, nearestDistance) / METERS_PER_SECOND);
+            linked[i] = linked[nearest] = true;
+        }
+    }
+
+    // writes a Barabasi-Albert graph, starting from a small fully linked core;
+    // a location is picked with probability proportional to its links by
+    // picking a random entry from the list of both ends of every link so far
+    private static void writeScaleFree(int nodeCount, Random random, Writer out) throws IOException {
+        int core = Math.min(nodeCount, SCALE_FREE_LINKS + 1);
+        int[] linkEnds = new int[2 * (core * (core - 1) / 2 + (nodeCount - core) * SCALE_FREE_LINKS)];
+        int endCount = 0;
+        for (int a = 0; a < core; a++)
+            for (int b = a + 1; b < core; b++) {
+                writeEdge(out, a, b, randomWalkSeconds(random));
+                linkEnds[endCount++] = a;
+                linkEnds[endCount++] = b;
+            }
+        int[] chosen = new int[SCALE_FREE_LINKS];
+        for (int node = core; node < nodeCount; node++) {
+            int endsBefore = endCount;
+            for (int link = 0; link < SCALE_FREE_LINKS; link++) {
+                int target;
+                boolean repeated;
+                do { // never link the same pair of locations twice
+                    target = linkEnds[random.nextInt(endsBefore)];
+                    repeated = false;
+                    for (int k = 0; k < link; k++)
+                        repeated |= chosen[k] == target;
+                } while (repeated);
+                chosen[link] = target;
+                writeEdge(out, node, target, randomWalkSeconds(random));
+                linkEnds[endCount++] = node;
+                linkEnds[endCount++] = target;
+            }
+        }
+    }
+
+    // returns a walking time between 30 seconds and 5 minutes
+    private static double randomWalkSeconds(Random random) {
+        return 30 + 270 * random.nextDouble();
+    }
+}
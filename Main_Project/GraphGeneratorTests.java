@@ -0,0 +1,73 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests that GraphGenerator writes dot files that the Backend can
+ * load, and that the same seed always produces the same file.
+ */
+public class GraphGeneratorTests {
+
+    // generates a graph of this topology and loads it through the Backend
+    private static DijkstraGraph<String, Double> generateAndLoad(String topology, int nodeCount)
+            throws IOException {
+        File file = File.createTempFile("generated-" + topology, ".dot");
+        file.deleteOnExit();
+        try (Writer out = new FileWriter(file)) {
+            GraphGenerator.generate(topology, nodeCount, 400, out);
+        }
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        new Backend<String>(graph).loadGraphData(file.getPath());
+        return graph;
+    }
+
+    /**
+     * Test that each topology loads with the expected number of locations,
+     * and with every edge inserted in both directions.
+     */
+    @Test
+    public void testTopologiesLoad() throws IOException {
+        DijkstraGraph<String, Double> grid = generateAndLoad("grid", 100);
+        Assertions.assertEquals(100, grid.getNodeCount());
+        Assertions.assertEquals(2 * 2 * 10 * 9, grid.getEdgeCount());
+        Assertions.assertTrue(grid.containsEdge("Location 11", "Location 12"));
+        Assertions.assertEquals(grid.getEdge("Location 11", "Location 12"),
+                grid.getEdge("Location 12", "Location 11"));
+
+        DijkstraGraph<String, Double> scaleFree = generateAndLoad("scalefree", 500);
+        Assertions.assertEquals(500, scaleFree.getNodeCount());
+        Assertions.assertEquals(2 * (3 + 497 * 2), scaleFree.getEdgeCount());
+        // every location is linked to the core, so all of them are reachable
+        Assertions.assertEquals(500, scaleFree.shortestPathCostsWithin("Location 0",
+                Double.POSITIVE_INFINITY).getSize());
+
+        // locations with no other within walking distance are still linked
+        DijkstraGraph<String, Double> geometric = generateAndLoad("geometric", 2000);
+        Assertions.assertEquals(2000, geometric.getNodeCount());
+        Assertions.assertTrue(geometric.getEdgeCount() > 2 * 2000);
+    }
+
+    /**
+     * Test that the same topology, size and seed produce the same dot file,
+     * and that a different seed produces a different one.
+     */
+    @Test
+    public void testSeedIsReproducible() throws IOException {
+        for (String topology : new String[] {"grid", "geometric", "scalefree"}) {
+            StringWriter first = new StringWriter();
+            StringWriter second = new StringWriter();
+            StringWriter other = new StringWriter();
+            GraphGenerator.generate(topology, 400, 1, first);
+            GraphGenerator.generate(topology, 400, 1, second);
+            GraphGenerator.generate(topology, 400, 2, other);
+            Assertions.assertEquals(first.toString(), second.toString());
+            Assertions.assertNotEquals(first.toString(), other.toString());
+        }
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> GraphGenerator.generate("ring", 400, 1, new StringWriter()));
+    }
+}
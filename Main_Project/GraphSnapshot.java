@@ -0,0 +1,211 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * This GraphSnapshot class saves a CompactGraph of locations to a binary file,
+ * and opens such files again much faster than a dot file can be parsed. A
+ * dot file remains the format that graphs are written and edited in; a
+ * snapshot is created from one after it has been loaded, with
+ *     java GraphSnapshot campus.dot campus.snapshot
+ * and can then be served by passing it to WebApp in place of the dot file.
+ *
+ * A snapshot holds, in little endian byte order:
+ * - a header of 5 ints: MAGIC, VERSION, node count, edge count, and the
+ *   number of bytes taken by all node names together
+ * - the byte offset of each node's name within the names, followed by the
+ *   total number of name bytes (node count + 1 ints)
+ * - the UTF-8 bytes of every node's name, in node id order
+ * - the CSR offsets (node count + 1 ints) and targets (edge count ints) of
+ *   the CompactGraph, followed by its weights (edge count doubles)
+ * - a CRC32 checksum of everything before it, as a long
+ * Each section starts at a multiple of 8 bytes, padded with zeros.
+ *
+ * Opening a snapshot maps the file into memory with FileChannel.map, checks
+ * its checksum, and bulk copies each section into the arrays of a new
+ * CompactGraph. Only the node names become objects; no edge ever does.
+ */
+public class GraphSnapshot {
+
+    // first int of every snapshot ("CNGS" in ascii), to recognize the format
+    public static final int MAGIC = 0x434E4753;
+    // version of the format above, increased whenever it changes
+    public static final int VERSION = 1;
+
+    // number of bytes in the header, padded to a multiple of 8
+    private static final int HEADER_BYTES = 24;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2)
+            throw new IllegalArgumentException("Usage: java GraphSnapshot graph.dot graph.snapshot");
+        long startTime = System.nanoTime();
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        new Backend<String>(graph).loadGraphData(args[0]);
+        write(graph, args[1]);
+        System.out.println("Wrote snapshot of " + graph.getNodeCount() + " nodes and " +
+                graph.getEdgeCount() + " edges to " + args[1] + " in " +
+                (System.nanoTime() - startTime) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Saves a snapshot of a loaded graph's current nodes and edges to a file.
+     *
+     * @param graph    the graph to save
+     * @param filename the file to save it to, which is replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(BaseGraph<String, ? extends Number> graph, String filename)
+            throws IOException {
+        write(graph.freeze(), filename);
+    }
+
+    /**
+     * Saves a snapshot of a compact graph to a file. The snapshot is written
+     * to a temporary file next to filename first, and only renamed to
+     * filename once complete, so a snapshot being served is never replaced
+     * by a partly written one.
+     *
+     * @param graph    the graph to save
+     * @param filename the file to save it to, which is replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(CompactGraph<String> graph, String filename) throws IOException {
+        int nodeCount = graph.nodeData.size();
+        int edgeCount = graph.targets.length;
+        List<byte[]> names = new ArrayList<>(nodeCount);
+        long nameBytes = 0;
+        for (String name : graph.nodeData) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            names.add(bytes);
+            nameBytes += bytes.length;
+        }
+        if (nameBytes > Integer.MAX_VALUE)
+            throw new IOException("Node names are too long to be saved in a snapshot");
+
+        long namesStart = HEADER_BYTES + pad(4L * (nodeCount + 1));
+        long offsetsStart = namesStart + pad(nameBytes);
+        long weightsStart = offsetsStart + pad(4L * (nodeCount + 1 + edgeCount));
+        long checksumStart = weightsStart + 8L * edgeCount;
+        if (checksumStart + 8 > Integer.MAX_VALUE)
+            throw new IOException("Graph is too large to be saved in a snapshot");
+
+        File file = new File(filename);
+        File partial = new File(filename + ".tmp");
+        try (RandomAccessFile out = new RandomAccessFile(partial, "rw");
+                FileChannel channel = out.getChannel()) {
+            out.setLength(0);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, checksumStart + 8);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(nodeCount).putInt(edgeCount).putInt((int) nameBytes);
+
+            // name offsets, then the names themselves
+            buffer.position(HEADER_BYTES);
+            int nameOffset = 0;
+            for (byte[] name : names) {
+                buffer.putInt(nameOffset);
+                nameOffset += name.length;
+            }
+            buffer.putInt(nameOffset);
+            buffer.position((int) namesStart);
+            for (byte[] name : names)
+                buffer.put(name);
+
+            // CSR arrays
+            buffer.position((int) offsetsStart);
+            buffer.asIntBuffer().put(graph.offsets).put(graph.targets);
+            buffer.position((int) weightsStart);
+            buffer.asDoubleBuffer().put(graph.weights);
+
+            buffer.position((int) checksumStart);
+            buffer.putLong(checksum(buffer, (int) checksumStart));
+            buffer.force();
+        }
+        if (!partial.renameTo(file))
+            throw new IOException("Could not replace " + filename + " with " + partial.getPath());
+    }
+
+    /**
+     * Opens a snapshot saved by write(), by mapping it into memory.
+     *
+     * @param filename the snapshot file to open
+     * @return a compact graph with the same node ids, node order, and edges
+     *         as the graph that was saved
+     * @throws IOException if the file cannot be read, is not a snapshot of
+     *                     this VERSION, or does not match its checksum
+     */
+    public static CompactGraph<String> open(String filename) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(filename, "r");
+                FileChannel channel = in.getChannel()) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 8 || size > Integer.MAX_VALUE)
+                throw new IOException(filename + " is not a graph snapshot");
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC)
+                throw new IOException(filename + " is not a graph snapshot");
+            int version = buffer.getInt();
+            if (version != VERSION)
+                throw new IOException(filename + " is a version " + version +
+                        " snapshot, but only version " + VERSION + " can be opened");
+            int nodeCount = buffer.getInt();
+            int edgeCount = buffer.getInt();
+            int nameBytes = buffer.getInt();
+
+            long namesStart = HEADER_BYTES + pad(4L * (nodeCount + 1));
+            long offsetsStart = namesStart + pad(nameBytes);
+            long weightsStart = offsetsStart + pad(4L * (nodeCount + 1 + edgeCount));
+            long checksumStart = weightsStart + 8L * edgeCount;
+            if (nodeCount < 0 || edgeCount < 0 || nameBytes < 0 || checksumStart + 8 != size)
+                throw new IOException(filename + " is truncated or corrupted");
+            if (buffer.getLong((int) checksumStart) != checksum(buffer, (int) checksumStart))
+                throw new IOException(filename + " does not match its checksum");
+
+            // node names
+            int[] nameOffsets = new int[nodeCount + 1];
+            buffer.position(HEADER_BYTES);
+            buffer.asIntBuffer().get(nameOffsets);
+            byte[] nameData = new byte[nameBytes];
+            buffer.position((int) namesStart);
+            buffer.get(nameData);
+            List<String> nodeData = new ArrayList<>(nodeCount);
+            MapADT<String, Integer> nodeIds = new HashtableMap<>();
+            for (int id = 0; id < nodeCount; id++) {
+                String name = new String(nameData, nameOffsets[id],
+                        nameOffsets[id + 1] - nameOffsets[id], StandardCharsets.UTF_8);
+                nodeData.add(name);
+                nodeIds.put(name, id);
+            }
+
+            // CSR arrays
+            int[] offsets = new int[nodeCount + 1];
+            int[] targets = new int[edgeCount];
+            double[] weights = new double[edgeCount];
+            buffer.position((int) offsetsStart);
+            buffer.asIntBuffer().get(offsets).get(targets);
+            buffer.position((int) weightsStart);
+            buffer.asDoubleBuffer().get(weights);
+            if (offsets[nodeCount] != edgeCount)
+                throw new IOException(filename + " is truncated or corrupted");
+            return new CompactGraph<>(nodeData, nodeIds, offsets, targets, weights);
+        }
+    }
+
+    // rounds a number of bytes up to the next multiple of 8
+    protected static long pad(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    // computes the CRC32 checksum of the first length bytes of buffer
+    protected static long checksum(MappedByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(length));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,81 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests that graphs saved by GraphSnapshot open again unchanged,
+ * and that damaged snapshots are refused.
+ */
+public class GraphSnapshotTests {
+
+    // saves a snapshot of campus.dot to a new temporary file
+    private static File writeCampusSnapshot() throws IOException {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        new Backend<String>(graph).loadGraphData("campus.dot");
+        File file = File.createTempFile("campus", ".snapshot");
+        file.deleteOnExit();
+        GraphSnapshot.write(graph, file.getPath());
+        return file;
+    }
+
+    /**
+     * Test that an opened snapshot holds exactly the node ids, node order,
+     * and CSR arrays of the graph it was saved from, including node names
+     * outside of ascii.
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        new Backend<String>(graph).loadGraphData("campus.dot");
+        graph.insertNode("Caf\u00e9 \u6821\u56ed");
+        graph.insertEdge("Caf\u00e9 \u6821\u56ed", "Bascom Hall", 42.5);
+        CompactGraph<String> expected = graph.freeze();
+        File file = File.createTempFile("campus", ".snapshot");
+        file.deleteOnExit();
+        GraphSnapshot.write(expected, file.getPath());
+
+        CompactGraph<String> opened = GraphSnapshot.open(file.getPath());
+        Assertions.assertEquals(expected.getAllNodes(), opened.getAllNodes());
+        Assertions.assertArrayEquals(expected.offsets, opened.offsets);
+        Assertions.assertArrayEquals(expected.targets, opened.targets);
+        Assertions.assertArrayEquals(expected.weights, opened.weights);
+        Assertions.assertEquals(42.5, opened.getEdge("Caf\u00e9 \u6821\u56ed", "Bascom Hall"));
+        Assertions.assertEquals(expected.shortestPathCost("Bascom Hall", "Van Hise Hall"),
+                opened.shortestPathCost("Bascom Hall", "Van Hise Hall"));
+    }
+
+    /**
+     * Test that snapshots with a changed byte, a different version, or
+     * missing bytes cannot be opened.
+     */
+    @Test
+    public void testDamagedSnapshots() throws IOException {
+        File file = writeCampusSnapshot();
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.seek(out.length() / 2);
+            int b = out.read();
+            out.seek(out.length() / 2);
+            out.write(b ^ 1);
+        }
+        IOException e = Assertions.assertThrows(IOException.class,
+                () -> GraphSnapshot.open(file.getPath()));
+        Assertions.assertTrue(e.getMessage().contains("checksum"));
+
+        File version = writeCampusSnapshot();
+        try (RandomAccessFile out = new RandomAccessFile(version, "rw")) {
+            out.seek(4);
+            out.write(GraphSnapshot.VERSION + 1);
+        }
+        e = Assertions.assertThrows(IOException.class, () -> GraphSnapshot.open(version.getPath()));
+        Assertions.assertTrue(e.getMessage().contains("version"));
+
+        File truncated = writeCampusSnapshot();
+        try (RandomAccessFile out = new RandomAccessFile(truncated, "rw")) {
+            out.setLength(out.length() - 8);
+        }
+        Assertions.assertThrows(IOException.class, () -> GraphSnapshot.open(truncated.getPath()));
+        Assertions.assertThrows(IOException.class, () -> GraphSnapshot.open("campus.dot"));
+    }
+}
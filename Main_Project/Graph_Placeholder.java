@@ -11,6 +11,7 @@ import java.util.NoSuchElementException;
 public class Graph_Placeholder implements GraphADT<String, Double> {
 
   protected List<String> path;
+  protected long version = 0;
 
   public Graph_Placeholder() {
     path = new ArrayList<>();
@@ -20,13 +21,14 @@ public class Graph_Placeholder implements GraphADT<String, Double> {
   }
 
   public boolean insertNode(String data) {
-    if(path.size() < 4) { path.add(data); return true; }
+    if(path.size() < 4) { path.add(data); version++; return true; }
     else return false;
   }
 
   public boolean removeNode(String data) {
     if(path.size() > 3 && path.contains(data)) {
 	path.remove(data);
+	version++;
 	return true;
     }
     else return false;
@@ -69,6 +71,10 @@ public class Graph_Placeholder implements GraphADT<String, Double> {
     return path.size() - 1;
   }
 
+  public long getVersion() {
+    return version;
+  }
+
   public List<String> shortestPathData(String start, String end) {
     boolean capture = false;
     ArrayList<String> list = new ArrayList<>();
@@ -91,4 +97,22 @@ public class Graph_Placeholder implements GraphADT<String, Double> {
     return sum;
   }
 
+  public RouteResult<String> shortestPathRoute(String start, String end) {
+    List<String> nodes = shortestPathData(start, end);
+    List<Double> legWeights = new ArrayList<>();
+    for(int i=1;i<nodes.size();i++)
+      legWeights.add(getEdge(nodes.get(i-1), nodes.get(i)));
+    return new RouteResult<>(nodes, legWeights, shortestPathCost(start, end));
+  }
+
+  public MapADT<String, Double> shortestPathCostsWithin(String start, double maxCost) {
+    if(!path.contains(start)) throw new NoSuchElementException();
+    MapADT<String, Double> costs = new HashtableMap<>();
+    for(String node : path) {
+      double cost = shortestPathCost(start, node);
+      if(cost <= maxCost) costs.put(node, cost);
+    }
+    return costs;
+  }
+
 }
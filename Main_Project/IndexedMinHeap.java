@@ -0,0 +1,196 @@
+import java.util.NoSuchElementException;
+
+/**
+ * This IndexedMinHeap class is a binary min heap of int ids, each stored with
+ * a double priority. Ids range from 0 to capacity-1, and each id can be in
+ * the heap at most once. The heap remembers where each id is stored, so the
+ * priority of an id that is already in the heap can be lowered in place
+ * (decrease-key) instead of adding a second copy of it.
+ *
+ * All storage is allocated when the heap is created: inserting, removing and
+ * decreasing priorities never allocate, which makes this heap well suited to
+ * the inner loop of Dijkstra's algorithm over int node ids.
+ */
+public class IndexedMinHeap {
+
+    // ids stored in heap order: heap[0] has the lowest priority
+    protected int[] heap;
+    // index of each id within heap, or -1 when that id is not in the heap
+    protected int[] positions;
+    // priority of each id, only meaningful while that id is in the heap
+    protected double[] priorities;
+    // number of ids currently stored in the heap
+    protected int size = 0;
+
+    /**
+     * Creates an empty heap that can hold the ids 0 through capacity-1.
+     *
+     * @param capacity the number of distinct ids this heap can hold
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public IndexedMinHeap(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Capacity cannot be negative.");
+        heap = new int[capacity];
+        positions = new int[capacity];
+        priorities = new double[capacity];
+        for (int id = 0; id < capacity; id++)
+            positions[id] = -1;
+    }
+
+    /**
+     * Checks whether this heap is empty.
+     *
+     * @return true if no ids are stored in this heap, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Retrieves the number of ids stored in this heap.
+     *
+     * @return the number of ids stored in this heap
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether an id is stored in this heap.
+     *
+     * @param id the id to check for
+     * @return true if id is stored in this heap, false otherwise
+     */
+    public boolean contains(int id) {
+        return positions[id] >= 0;
+    }
+
+    /**
+     * Retrieves the priority that an id is stored with.
+     *
+     * @param id the id to look up
+     * @return the priority of that id
+     * @throws NoSuchElementException if id is not stored in this heap
+     */
+    public double getPriority(int id) {
+        if (!contains(id))
+            throw new NoSuchElementException("id " + id + " is not in the heap");
+        return priorities[id];
+    }
+
+    /**
+     * Adds an id to this heap with the provided priority.
+     *
+     * @param id       the id to add
+     * @param priority the priority to store it with
+     * @throws IllegalArgumentException if id is already stored in this heap
+     */
+    public void insert(int id, double priority) {
+        if (contains(id))
+            throw new IllegalArgumentException("id " + id + " is already in the heap");
+        heap[size] = id;
+        positions[id] = size;
+        priorities[id] = priority;
+        size++;
+        siftUp(size - 1);
+    }
+
+    /**
+     * Lowers the priority of an id that is already stored in this heap.
+     *
+     * @param id       the id whose priority to lower
+     * @param priority the new priority, which must not exceed its current one
+     * @throws NoSuchElementException   if id is not stored in this heap
+     * @throws IllegalArgumentException if priority is greater than the id's
+     *                                  current priority
+     */
+    public void decreaseKey(int id, double priority) {
+        if (priority > getPriority(id))
+            throw new IllegalArgumentException("priority " + priority + " exceeds current priority "
+                    + priorities[id] + " of id " + id);
+        priorities[id] = priority;
+        siftUp(positions[id]);
+    }
+
+    /**
+     * Returns the lowest priority stored in this heap, without removing it.
+     *
+     * @return the priority of the id at the top of this heap
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public double peekPriority() {
+        if (isEmpty())
+            throw new NoSuchElementException("The heap is empty");
+        return priorities[heap[0]];
+    }
+
+    /**
+     * Removes and returns the id with the lowest priority from this heap.
+     *
+     * @return the id that had the lowest priority
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public int removeMin() {
+        if (isEmpty())
+            throw new NoSuchElementException("The heap is empty");
+        int min = heap[0];
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        positions[min] = -1;
+        return min;
+    }
+
+    /**
+     * Removes all ids from this heap, in time proportional to how many ids it
+     * currently holds.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            positions[heap[i]] = -1;
+        size = 0;
+    }
+
+    // moves the id at index up the heap until its parent has no higher priority
+    private void siftUp(int index) {
+        int id = heap[index];
+        double priority = priorities[id];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            int parentId = heap[parent];
+            if (priorities[parentId] <= priority)
+                break;
+            heap[index] = parentId;
+            positions[parentId] = index;
+            index = parent;
+        }
+        heap[index] = id;
+        positions[id] = index;
+    }
+
+    // moves the id at index down the heap until neither child has a lower priority
+    private void siftDown(int index) {
+        int id = heap[index];
+        double priority = priorities[id];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size)
+                break;
+            // pick the child with the lower priority
+            if (child + 1 < size && priorities[heap[child + 1]] < priorities[heap[child]])
+                child++;
+            int childId = heap[child];
+            if (priorities[childId] >= priority)
+                break;
+            heap[index] = childId;
+            positions[childId] = index;
+            index = child;
+        }
+        heap[index] = id;
+        positions[id] = index;
+    }
+}
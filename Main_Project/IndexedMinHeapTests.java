@@ -0,0 +1,54 @@
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests the IndexedMinHeap used by CompactGraph's searches.
+ */
+public class IndexedMinHeapTests {
+
+    /**
+     * Test that ids are removed in order of priority, including after their
+     * priorities have been decreased.
+     */
+    @Test
+    public void testRemoveMinAfterDecreaseKey() {
+        IndexedMinHeap heap = new IndexedMinHeap(6);
+        heap.insert(0, 5.0);
+        heap.insert(1, 3.0);
+        heap.insert(2, 8.0);
+        heap.insert(3, 1.0);
+        heap.insert(4, 9.0);
+        heap.decreaseKey(4, 2.0);
+        heap.decreaseKey(2, 0.5);
+        Assertions.assertEquals(5, heap.size());
+        Assertions.assertEquals(0.5, heap.peekPriority());
+        int[] expected = {2, 3, 4, 1, 0};
+        for (int id : expected) {
+            Assertions.assertTrue(heap.contains(id));
+            Assertions.assertEquals(id, heap.removeMin());
+            Assertions.assertFalse(heap.contains(id));
+        }
+        Assertions.assertTrue(heap.isEmpty());
+        Assertions.assertThrows(NoSuchElementException.class, () -> heap.removeMin());
+    }
+
+    /**
+     * Test that each id can only be stored once, that priorities can only be
+     * decreased, and that clear allows ids to be inserted again.
+     */
+    @Test
+    public void testInvalidOperationsAndClear() {
+        IndexedMinHeap heap = new IndexedMinHeap(3);
+        heap.insert(1, 4.0);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> heap.insert(1, 2.0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(1, 6.0));
+        Assertions.assertThrows(NoSuchElementException.class, () -> heap.decreaseKey(2, 1.0));
+        heap.insert(2, 7.0);
+        heap.clear();
+        Assertions.assertTrue(heap.isEmpty());
+        Assertions.assertFalse(heap.contains(1));
+        heap.insert(1, 3.0);
+        Assertions.assertEquals(1, heap.removeMin());
+    }
+}
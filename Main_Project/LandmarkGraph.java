@@ -0,0 +1,209 @@
+import java.util.Arrays;
+
+/**
+ * This LandmarkGraph is a CompactGraph that finds the shortest path between
+ * two nodes with A* search, guided by the ALT (A*, landmarks, and triangle
+ * inequality) heuristic. When it is created, a few landmark nodes are picked
+ * that lie far from each other, and the shortest path costs from every
+ * landmark to every node and from every node to every landmark are stored.
+ * By the triangle inequality, for any landmark L, the cost of the shortest
+ * path from a node v to the end node t is at least both
+ * dist(v, L) - dist(t, L) and dist(L, t) - dist(L, v). The largest of these
+ * bounds never overestimates that cost, so A* still settles the end node
+ * with its shortest path cost, while settling the nodes that lead toward it
+ * well before those that lead away from it.
+ *
+ * The costs to every landmark are found by searching a copy of this graph in
+ * which every edge is reversed. Each landmark takes 16 bytes per node.
+ *
+ * Shortest paths and their costs are found this way, unless a distance
+ * table or path trees were set up (see CompactGraph), which answer them
+ * without searching anyway. The nodes reachable within a cost are found by
+ * the same search as in any CompactGraph.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class LandmarkGraph<NodeType> extends CompactGraph<NodeType> {
+
+    // number of landmarks used by default
+    public static final int DEFAULT_LANDMARK_COUNT = 8;
+
+    // ids of the landmark nodes
+    protected int[] landmarks;
+    // cost of the shortest path from landmark k to node id, at
+    // fromLandmark[id * landmarks.length + k], or infinity when there is none
+    protected double[] fromLandmark;
+    // cost of the shortest path from node id to landmark k, at
+    // toLandmark[id * landmarks.length + k], or infinity when there is none
+    protected double[] toLandmark;
+
+    /**
+     * Creates a LandmarkGraph with the same nodes and edges as graph, which
+     * it shares rather than copies, and with DEFAULT_LANDMARK_COUNT landmarks.
+     *
+     * @param graph the graph to search with landmarks
+     */
+    public LandmarkGraph(CompactGraph<NodeType> graph) {
+        this(graph, DEFAULT_LANDMARK_COUNT);
+    }
+
+    /**
+     * Creates a LandmarkGraph with the same nodes and edges as graph, which
+     * it shares rather than copies, and picks landmarkCount landmarks in it
+     * (or one per node, in graphs with fewer nodes). The first landmark is the
+     * node farthest from node 0, and each following one is the node farthest
+     * from the landmarks picked before it. Nodes that cannot be reached from
+     * those are never picked, since a landmark in a small part of the graph
+     * that is cut off from the rest would bound few paths.
+     *
+     * @param graph         the graph to search with landmarks
+     * @param landmarkCount the number of landmarks to pick
+     * @throws IllegalArgumentException if landmarkCount is less than one
+     */
+    public LandmarkGraph(CompactGraph<NodeType> graph, int landmarkCount) {
+        super(graph.nodeData, graph.nodeIds, graph.offsets, graph.targets, graph.weights);
+        if (landmarkCount < 1)
+            throw new IllegalArgumentException("A LandmarkGraph needs at least one landmark.");
+        int nodeCount = nodeData.size();
+        int count = Math.min(landmarkCount, nodeCount);
+        landmarks = new int[count];
+        fromLandmark = new double[nodeCount * count];
+        toLandmark = new double[nodeCount * count];
+        if (nodeCount == 0)
+            return;
+
+        CompactGraph<NodeType> reversed = reverse();
+        // cost from the nearest landmark picked so far to each node
+        double[] nearest = search(0, -1, Double.POSITIVE_INFINITY).dist;
+        for (int k = 0; k < count; k++) {
+            int landmark = farthest(nearest);
+            landmarks[k] = landmark;
+            double[] from = search(landmark, -1, Double.POSITIVE_INFINITY).dist;
+            double[] to = reversed.search(landmark, -1, Double.POSITIVE_INFINITY).dist;
+            for (int node = 0; node < nodeCount; node++) {
+                fromLandmark[node * count + k] = from[node];
+                toLandmark[node * count + k] = to[node];
+                if (k == 0 || from[node] < nearest[node])
+                    nearest[node] = from[node];
+            }
+        }
+    }
+
+    // returns the node with the highest cost other than infinity, preferring
+    // the lowest id among nodes of equal cost
+    private static int farthest(double[] costs) {
+        int farthest = 0;
+        for (int node = 1; node < costs.length; node++)
+            if (costs[node] > costs[farthest] && costs[node] != Double.POSITIVE_INFINITY)
+                farthest = node;
+        return farthest;
+    }
+
+    // returns a CompactGraph over the same nodes as this one, in which every
+    // edge runs in the opposite direction
+    private CompactGraph<NodeType> reverse() {
+        int nodeCount = nodeData.size();
+        int[] reverseOffsets = new int[nodeCount + 1];
+        for (int target : targets)
+            reverseOffsets[target + 1]++;
+        for (int node = 0; node < nodeCount; node++)
+            reverseOffsets[node + 1] += reverseOffsets[node];
+        int[] next = Arrays.copyOf(reverseOffsets, nodeCount);
+        int[] reverseTargets = new int[targets.length];
+        double[] reverseWeights = new double[targets.length];
+        for (int node = 0; node < nodeCount; node++)
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                int index = next[targets[i]]++;
+                reverseTargets[index] = node;
+                reverseWeights[index] = weights[i];
+            }
+        return new CompactGraph<>(nodeData, nodeIds, reverseOffsets, reverseTargets, reverseWeights);
+    }
+
+    /**
+     * Returns the ids of the landmark nodes of this graph.
+     *
+     * @return a copy of the ids of the landmarks
+     */
+    public int[] getLandmarks() {
+        return landmarks.clone();
+    }
+
+    /**
+     * Runs A* search from the node with id source until the node with id
+     * target is settled, using the landmark bounds on the cost from each node
+     * to target as its heuristic. Nodes are settled in order of the cost of
+     * the best path found to them plus that bound, rather than by that cost
+     * alone. In the returned state, dist, pred and predEdge hold the shortest
+     * path to target, just as they would after CompactGraph.search, though
+     * they hold fewer other settled nodes.
+     *
+     * @param source id of the node to search from
+     * @param target id of the node to search for
+     * @return the state that the search finished with
+     */
+    protected SearchState searchWithLandmarks(int source, int target) {
+        int count = landmarks.length;
+        // costs between target and every landmark, which every bound uses
+        double[] targetFrom = Arrays.copyOfRange(fromLandmark, target * count, (target + 1) * count);
+        double[] targetTo = Arrays.copyOfRange(toLandmark, target * count, (target + 1) * count);
+
+        SearchState state = new SearchState(nodeData.size());
+        double[] dist = state.dist;
+        IndexedMinHeap heap = state.heap;
+        dist[source] = 0;
+        heap.insert(source, bound(source, targetFrom, targetTo));
+        while (!heap.isEmpty()) {
+            int node = heap.removeMin();
+            state.settledCount++;
+            if (node == target)
+                break;
+            double nodeCost = dist[node];
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                int succ = targets[i];
+                double cost = nodeCost + weights[i];
+                if (cost < dist[succ]) {
+                    double priority = cost + bound(succ, targetFrom, targetTo);
+                    // nodes that cannot reach target are never worth settling
+                    if (priority == Double.POSITIVE_INFINITY)
+                        continue;
+                    if (heap.contains(succ))
+                        heap.decreaseKey(succ, priority);
+                    else
+                        heap.insert(succ, priority);
+                    dist[succ] = cost;
+                    state.pred[succ] = node;
+                    state.predEdge[succ] = i;
+                }
+            }
+        }
+        settledCount = state.settledCount;
+        return state;
+    }
+
+    // returns the largest landmark bound on the cost of the shortest path
+    // from node to the target whose costs from and to each landmark are given
+    private double bound(int node, double[] targetFrom, double[] targetTo) {
+        int count = landmarks.length;
+        int row = node * count;
+        double bound = 0;
+        for (int k = 0; k < count; k++) {
+            // bounds that subtract infinity from infinity are NaN, and skipped
+            double toBound = toLandmark[row + k] - targetTo[k];
+            if (toBound > bound)
+                bound = toBound;
+            double fromBound = targetFrom[k] - fromLandmark[row + k];
+            if (fromBound > bound)
+                bound = fromBound;
+        }
+        return bound;
+    }
+
+    @Override
+    protected SearchState searchTo(int source, int target) {
+        // kept trees answer later queries too, so those still search everything
+        if (pathTrees != null)
+            return super.searchTo(source, target);
+        return searchWithLandmarks(source, target);
+    }
+}
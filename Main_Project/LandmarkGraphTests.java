@@ -0,0 +1,69 @@
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests that a LandmarkGraph finds shortest paths of the same
+ * cost as the CompactGraph it was created from, while settling fewer nodes.
+ */
+public class LandmarkGraphTests {
+
+    /**
+     * Test that the shortest path costs between every pair of campus
+     * locations match those found by Dijkstra's algorithm, that every route
+     * found is a path of that cost, and that fewer nodes are settled in total.
+     */
+    @Test
+    public void testShortestPathsMatch() throws IOException {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        new Backend<String>(graph).loadGraphData("campus.dot");
+        CompactGraph<String> compact = graph.freeze();
+        LandmarkGraph<String> landmarks = new LandmarkGraph<>(compact, 4);
+        Assertions.assertEquals(4, landmarks.getLandmarks().length);
+
+        long dijkstraSettled = 0;
+        long landmarkSettled = 0;
+        List<String> locations = compact.getAllNodes();
+        for (String start : locations)
+            for (String end : locations) {
+                double expected = compact.shortestPathCost(start, end);
+                dijkstraSettled += compact.getSettledCount();
+                RouteResult<String> route = landmarks.shortestPathRoute(start, end);
+                landmarkSettled += landmarks.getSettledCount();
+                // paths that tie may round to costs that differ in their last bit
+                Assertions.assertEquals(expected, route.getTotalCost(), 1e-9);
+                List<String> nodes = route.getNodes();
+                Assertions.assertEquals(start, nodes.get(0));
+                Assertions.assertEquals(end, nodes.get(nodes.size() - 1));
+                for (int i = 1; i < nodes.size(); i++)
+                    Assertions.assertEquals(compact.getEdge(nodes.get(i - 1), nodes.get(i)),
+                            route.getLegWeights().get(i - 1));
+            }
+        Assertions.assertTrue(landmarkSettled < dijkstraSettled);
+    }
+
+    /**
+     * Test that nodes that cannot reach the end node are never settled, and
+     * that searching between them throws a NoSuchElementException.
+     */
+    @Test
+    public void testUnreachable() {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        for (String node : List.of("A", "B", "C", "D"))
+            graph.insertNode(node);
+        graph.insertEdge("A", "B", 1.0);
+        graph.insertEdge("B", "C", 2.0);
+        graph.insertEdge("A", "D", 1.0);
+        LandmarkGraph<String> landmarks = new LandmarkGraph<>(graph.freeze());
+        Assertions.assertEquals(4, landmarks.getLandmarks().length);
+        Assertions.assertEquals(List.of("A", "B", "C"), landmarks.shortestPathData("A", "C"));
+        Assertions.assertEquals(3.0, landmarks.shortestPathCost("A", "C"));
+        Assertions.assertEquals(3, landmarks.getSettledCount());
+        Assertions.assertThrows(NoSuchElementException.class,
+                () -> landmarks.shortestPathData("C", "A"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new LandmarkGraph<>(graph.freeze(), 0));
+    }
+}
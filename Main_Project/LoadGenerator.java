@@ -0,0 +1,108 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This LoadGenerator measures how many requests a running WebApp answers per
+ * second. It simulates a number of browsers that each send one request,
+ * wait for the complete response, and then immediately send the next, for a
+ * fixed amount of time. Each browser alternates between shortest path and
+ * reachability requests between random locations of a graph file, which
+ * should be the one the server was started with.
+ *
+ * Usage: java LoadGenerator http://localhost:8080 browsers seconds [graph.dot]
+ */
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3 || args.length > 4)
+            throw new IllegalArgumentException("Usage: java LoadGenerator " +
+                    "http://localhost:8080 browsers seconds [graph.dot]");
+        String server = args[0];
+        int browsers = Integer.parseInt(args[1]);
+        long duration = Long.parseLong(args[2]) * 1_000_000_000L;
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        new Backend<String>(graph).loadGraphData(args.length == 4 ? args[3] : "campus.dot");
+        List<String> locations = graph.getAllNodes();
+
+        // each browser records the latency of every request it completes
+        long[][] latencies = new long[browsers][];
+        int[] completed = new int[browsers];
+        AtomicInteger failures = new AtomicInteger();
+        AtomicReference<String> firstFailure = new AtomicReference<>();
+        long endTime = System.nanoTime() + duration;
+        Thread[] threads = new Thread[browsers];
+        for (int b = 0; b < browsers; b++) {
+            int browser = b;
+            threads[b] = new Thread(() -> {
+                Random random = new Random(browser);
+                long[] times = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < endTime) {
+                    String path = randomPath(locations, random, count % 2 == 0);
+                    long start = System.nanoTime();
+                    try {
+                        fetch(server + path);
+                    } catch (IOException e) {
+                        failures.incrementAndGet();
+                        firstFailure.compareAndSet(null, e.toString());
+                        continue;
+                    }
+                    if (count == times.length)
+                        times = Arrays.copyOf(times, 2 * count);
+                    times[count++] = System.nanoTime() - start;
+                }
+                latencies[browser] = times;
+                completed[browser] = count;
+            });
+            threads[b].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        int total = Arrays.stream(completed).sum();
+        long[] all = new long[total];
+        int index = 0;
+        for (int b = 0; b < browsers; b++) {
+            System.arraycopy(latencies[b], 0, all, index, completed[b]);
+            index += completed[b];
+        }
+        Arrays.sort(all);
+        System.out.printf("%d browsers: %d requests in %d s = %.1f requests/s, %d failed%n",
+                browsers, total, duration / 1_000_000_000L, total / (duration / 1e9), failures.get());
+        if (total > 0)
+            System.out.printf("latency ms: median %.1f, 99th percentile %.1f, max %.1f%n",
+                    all[total / 2] / 1e6, all[(int) (total * 0.99)] / 1e6, all[total - 1] / 1e6);
+        if (firstFailure.get() != null)
+            System.out.println("first failure: " + firstFailure.get());
+    }
+
+    // returns the path and query of a random shortest path or reachability request
+    private static String randomPath(List<String> locations, Random random, boolean shortestPath) {
+        String start = URLEncoder.encode(locations.get(random.nextInt(locations.size())),
+                StandardCharsets.UTF_8);
+        if (!shortestPath)
+            return "/?from=" + start + "&time=" + (60 + random.nextInt(600));
+        String end = URLEncoder.encode(locations.get(random.nextInt(locations.size())),
+                StandardCharsets.UTF_8);
+        return "/?start=" + start + "&end=" + end;
+    }
+
+    // sends a GET request for url and reads its whole response
+    private static void fetch(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        if (connection.getResponseCode() != 200)
+            throw new IOException("Response code " + connection.getResponseCode());
+        try (InputStream in = connection.getInputStream()) {
+            in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * This ParallelDotLoader loads very large dot files using several threads.
+ * The file is mapped into memory and split into chunks that each end at a
+ * line break, and the chunks are parsed at the same time by the threads of a
+ * ForkJoinPool, each with its own DotParser. Threads intern the node names
+ * they find through one shared ConcurrentHashMap, so that every location is
+ * held by a single String however many chunks it appears in.
+ *
+ * The parsed chunks are then inserted into the graph one after another, in
+ * file order, by the calling thread. So the graph ends up exactly as if the
+ * file had been loaded by Backend.loadGraphData: nodes are inserted in the
+ * order they first appear, and when an edge appears more than once, its
+ * last weight is kept.
+ *
+ * Since chunks are split at line breaks, every statement, quoted name and
+ * comment in the file must fit on one line, as they do in files written by
+ * GraphGenerator or in campus.dot.
+ */
+public class ParallelDotLoader {
+
+    // number of bytes of the file that are parsed together in one chunk
+    protected static final int CHUNK_BYTES = 1 << 23;
+
+    // The edges of one chunk of the file, in the order that they appear.
+    // Node names are numbered from 0 in the order they first appear within
+    // the chunk, and preds, succs and seconds hold one entry per edge.
+    protected static class Chunk {
+        public String[] names;
+        public int[] preds = new int[1024];
+        public int[] succs = new int[1024];
+        public double[] seconds = new double[1024];
+        public int edgeCount = 0;
+    }
+
+    /**
+     * Loads every edge of a dot file into graph, in both directions, using
+     * up to parallelism threads to parse the file. The graph is not cleared
+     * first.
+     *
+     * @param filename    the dot file to load
+     * @param graph       the graph that nodes and edges are inserted into
+     * @param parallelism number of threads that parse the file
+     * @throws IOException if the file cannot be read or holds a malformed edge
+     */
+    public static void load(String filename, GraphADT<String, Double> graph, int parallelism)
+            throws IOException {
+        load(filename, graph, parallelism, CHUNK_BYTES);
+    }
+
+    // loads filename into graph as above, splitting it into chunks of about
+    // chunkBytes bytes each
+    protected static void load(String filename, GraphADT<String, Double> graph, int parallelism,
+            int chunkBytes) throws IOException {
+        List<Chunk> chunks = parseChunks(filename, parallelism, chunkBytes);
+        for (Chunk chunk : chunks) {
+            for (String name : chunk.names)
+                graph.insertNode(name);
+            for (int i = 0; i < chunk.edgeCount; i++) {
+                String pred = chunk.names[chunk.preds[i]];
+                String succ = chunk.names[chunk.succs[i]];
+                Double weight = chunk.seconds[i];
+                graph.insertEdge(pred, succ, weight);
+                graph.insertEdge(succ, pred, weight);
+            }
+        }
+    }
+
+    /**
+     * Splits a dot file into chunks at line breaks, and parses all of them at
+     * the same time.
+     *
+     * @param filename    the dot file to parse
+     * @param parallelism number of threads that parse the file
+     * @param chunkBytes  number of bytes after which each chunk ends, at the
+     *                    next line break
+     * @return the parsed chunks, in file order
+     * @throws IOException if the file cannot be read or holds a malformed edge
+     */
+    protected static List<Chunk> parseChunks(String filename, int parallelism, int chunkBytes)
+            throws IOException {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("At least one thread is needed to load a graph");
+        try (RandomAccessFile in = new RandomAccessFile(filename, "r");
+                FileChannel channel = in.getChannel()) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException(filename + " is too large to be loaded in parallel");
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            // end each chunk just after the first line break past chunkBytes;
+            // since '\n' is never part of a multi byte UTF-8 character, every
+            // chunk can be decoded on its own
+            ConcurrentHashMap<String, String> internedNames = new ConcurrentHashMap<>();
+            List<Callable<Chunk>> tasks = new ArrayList<>();
+            int start = 0;
+            while (start < file.limit()) {
+                int end = (int) Math.min(file.limit(), (long) start + chunkBytes);
+                while (end < file.limit() && file.get(end - 1) != '\n')
+                    end++;
+                int chunkStart = start;
+                int chunkEnd = end;
+                tasks.add(() -> parseChunk(file, chunkStart, chunkEnd, internedNames));
+                start = end;
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                List<Chunk> chunks = new ArrayList<>(tasks.size());
+                for (Future<Chunk> result : pool.invokeAll(tasks))
+                    chunks.add(result.get());
+                return chunks;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading " + filename, e);
+            } catch (ExecutionException e) {
+                // the pool wraps a parser's IOException in one or more
+                // RuntimeExceptions, so report the IOException beneath them
+                for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause())
+                    if (cause instanceof IOException)
+                        throw (IOException) cause;
+                throw new IOException("Could not load " + filename, e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    // parses the bytes of file from start (inclusive) to end (exclusive)
+    private static Chunk parseChunk(MappedByteBuffer file, int start, int end,
+            ConcurrentHashMap<String, String> internedNames) throws IOException {
+        CharBuffer chars = StandardCharsets.UTF_8.decode(file.duplicate().position(start).limit(end));
+        DotParser parser = new DotParser(new CharArrayReader(chars.array(),
+                chars.arrayOffset() + chars.position(), chars.remaining()));
+        Chunk chunk = new Chunk();
+        while (nextEdge(parser, start)) {
+            if (chunk.edgeCount == chunk.preds.length) {
+                chunk.preds = Arrays.copyOf(chunk.preds, 2 * chunk.edgeCount);
+                chunk.succs = Arrays.copyOf(chunk.succs, 2 * chunk.edgeCount);
+                chunk.seconds = Arrays.copyOf(chunk.seconds, 2 * chunk.edgeCount);
+            }
+            chunk.preds[chunk.edgeCount] = parser.getPredecessor();
+            chunk.succs[chunk.edgeCount] = parser.getSuccessor();
+            chunk.seconds[chunk.edgeCount] = parser.getSeconds();
+            chunk.edgeCount++;
+        }
+        List<String> names = parser.getNames();
+        chunk.names = new String[names.size()];
+        for (int i = 0; i < chunk.names.length; i++) {
+            String interned = internedNames.putIfAbsent(names.get(i), names.get(i));
+            chunk.names[i] = interned == null ? names.get(i) : interned;
+        }
+        return chunk;
+    }
+
+    // reads the next edge of a chunk, reporting any problem with where in
+    // the file that chunk starts, since the parser only counts lines within it
+    private static boolean nextEdge(DotParser parser, int start) throws IOException {
+        try {
+            return parser.nextEdge();
+        } catch (IOException e) {
+            throw new IOException("In the chunk starting at byte " + start + ": " + e.getMessage(), e);
+        }
+    }
+}
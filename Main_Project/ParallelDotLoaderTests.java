@@ -0,0 +1,75 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests that ParallelDotLoader builds exactly the graph that
+ * Backend.loadGraphData builds from the same file.
+ */
+public class ParallelDotLoaderTests {
+
+    // checks that two graphs have the same nodes, in the same order, and the
+    // same edges leaving each of those nodes, in the same order
+    private static void assertSameGraph(DijkstraGraph<String, Double> expected,
+            DijkstraGraph<String, Double> actual) {
+        CompactGraph<String> expectedCompact = expected.freeze();
+        CompactGraph<String> actualCompact = actual.freeze();
+        Assertions.assertEquals(expectedCompact.getAllNodes(), actualCompact.getAllNodes());
+        Assertions.assertArrayEquals(expectedCompact.offsets, actualCompact.offsets);
+        Assertions.assertArrayEquals(expectedCompact.targets, actualCompact.targets);
+        Assertions.assertArrayEquals(expectedCompact.weights, actualCompact.weights);
+    }
+
+    /**
+     * Test that campus.dot, split into many small chunks that are parsed by
+     * several threads, loads into the same graph as loading it in one pass.
+     */
+    @Test
+    public void testCampusInSmallChunks() throws IOException {
+        DijkstraGraph<String, Double> expected = new DijkstraGraph<>();
+        new Backend<String>(expected).loadGraphData("campus.dot");
+        for (int chunkBytes : new int[] {1, 100, 1000, 1 << 20}) {
+            DijkstraGraph<String, Double> actual = new DijkstraGraph<>();
+            ParallelDotLoader.load("campus.dot", actual, 4, chunkBytes);
+            assertSameGraph(expected, actual);
+        }
+    }
+
+    /**
+     * Test that an edge repeated in a later chunk keeps its last weight, that
+     * loading in parallel through the Backend clears the previous graph, and
+     * that malformed edges are reported.
+     */
+    @Test
+    public void testDuplicatesAndErrors() throws IOException {
+        File file = File.createTempFile("duplicates", ".dot");
+        file.deleteOnExit();
+        try (Writer out = new FileWriter(file)) {
+            out.write("digraph campus {\n\t\"A\" -> \"B\" [seconds=5];\n\t\"B\" -> \"C\" [seconds=7];\n" +
+                    "\t\"B\" -> \"A\" [seconds=3];\n}\n");
+        }
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        graph.insertNode("Old");
+        new Backend<String>(graph).loadGraphDataInParallel(file.getPath(), 2);
+        Assertions.assertFalse(graph.containsNode("Old"));
+        DijkstraGraph<String, Double> chunked = new DijkstraGraph<>();
+        ParallelDotLoader.load(file.getPath(), chunked, 2, 1);
+        for (DijkstraGraph<String, Double> loaded : List.of(graph, chunked)) {
+            Assertions.assertEquals(3.0, loaded.getEdge("A", "B"));
+            Assertions.assertEquals(3.0, loaded.getEdge("B", "A"));
+            Assertions.assertEquals(7.0, loaded.getEdge("C", "B"));
+            Assertions.assertEquals(4, loaded.getEdgeCount());
+        }
+
+        try (Writer out = new FileWriter(file)) {
+            out.write("\"A\" -> \"B\" [seconds=5];\n\"B\" -> \"C\";\n");
+        }
+        IOException e = Assertions.assertThrows(IOException.class,
+                () -> ParallelDotLoader.load(file.getPath(), new DijkstraGraph<>(), 2, 1));
+        Assertions.assertTrue(e.getMessage().contains("seconds"));
+    }
+}
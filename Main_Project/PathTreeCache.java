@@ -0,0 +1,138 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This PathTreeCache keeps complete shortest path trees of a CompactGraph,
+ * each found by searching from one source node until every reachable node
+ * was settled. A tree is the dist, pred and predEdge arrays of the search
+ * that found it, so the shortest path from its source to any node can be read
+ * from it by walking predecessors, without searching again.
+ *
+ * Trees take 16 bytes per node of the graph, so the cache holds as many of
+ * them as fit within a budget of bytes. When adding a tree would exceed that
+ * budget, the trees that have gone unused the longest are evicted first.
+ *
+ * All methods are synchronized, so one cache can be shared by any number of
+ * threads. Cached trees are shared by everyone who looks them up, and must
+ * not be modified.
+ */
+public class PathTreeCache {
+
+    // largest number of bytes that the cached trees may take together
+    protected final long budgetBytes;
+    // number of bytes that the cached trees take together
+    protected long usedBytes = 0;
+    // cached trees by the id of their source node, from least to most recently used
+    protected final LinkedHashMap<Integer, CompactGraph.SearchState> trees =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    protected long hits = 0;
+    protected long misses = 0;
+    protected long evictions = 0;
+
+    /**
+     * Creates an empty cache whose trees take at most budgetBytes together.
+     *
+     * @param budgetBytes the number of bytes that trees may take
+     * @throws IllegalArgumentException if budgetBytes is negative
+     */
+    public PathTreeCache(long budgetBytes) {
+        if (budgetBytes < 0)
+            throw new IllegalArgumentException("A PathTreeCache cannot have a negative budget.");
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Returns the number of bytes that a tree over nodeCount nodes takes.
+     *
+     * @param nodeCount the number of nodes in the graph
+     * @return the bytes taken by the dist, pred and predEdge arrays of one tree
+     */
+    public static long treeBytes(int nodeCount) {
+        return 16L * nodeCount + 64;
+    }
+
+    /**
+     * Returns the cached tree of shortest paths from source, and counts the
+     * lookup as a hit or a miss.
+     *
+     * @param source id of the source node
+     * @return the tree from source, or null if none is cached
+     */
+    public synchronized CompactGraph.SearchState get(int source) {
+        CompactGraph.SearchState tree = trees.get(source);
+        if (tree == null)
+            misses++;
+        else
+            hits++;
+        return tree;
+    }
+
+    /**
+     * Caches the tree of shortest paths from source, evicting the least
+     * recently used trees as needed to stay within the budget. A tree larger
+     * than the whole budget is not cached.
+     *
+     * @param source id of the source node
+     * @param tree   the complete search state of a search from source
+     */
+    public synchronized void put(int source, CompactGraph.SearchState tree) {
+        long bytes = treeBytes(tree.dist.length);
+        if (bytes > budgetBytes || trees.containsKey(source))
+            return;
+        Iterator<Map.Entry<Integer, CompactGraph.SearchState>> oldest = trees.entrySet().iterator();
+        while (usedBytes + bytes > budgetBytes) {
+            usedBytes -= treeBytes(oldest.next().getValue().dist.length);
+            oldest.remove();
+            evictions++;
+        }
+        trees.put(source, tree);
+        usedBytes += bytes;
+    }
+
+    /**
+     * Returns the number of trees currently cached.
+     *
+     * @return the number of cached trees
+     */
+    public synchronized int size() {
+        return trees.size();
+    }
+
+    /**
+     * Returns the number of bytes that the cached trees take together.
+     *
+     * @return the bytes used by this cache
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Returns the number of lookups that found a cached tree.
+     *
+     * @return the number of hits so far
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that found no cached tree.
+     *
+     * @return the number of misses so far
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of trees evicted to stay within the budget.
+     *
+     * @return the number of evictions so far
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+}
@@ -0,0 +1,227 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This ProbingHashtableMap is an open addressing alternative to HashtableMap.
+ * Instead of an array of linked lists, keys and values are stored directly in
+ * parallel arrays, and collisions are resolved by linear probing: a key is
+ * stored in the first free slot at or after the slot its hash selects. The
+ * hash of every stored key is cached in a third array, so probing compares
+ * ints before calling equals(), and resizing never calls hashCode() again.
+ * The capacity is always a power of two, so a slot is selected by masking the
+ * hash rather than by the remainder operator.
+ */
+@SuppressWarnings("unchecked")
+public class ProbingHashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueType> {
+
+    // the table doubles in size once it is this full
+    protected static final double MAX_LOAD_FACTOR = 0.7;
+
+    protected KeyType[] keys = null; // null marks an empty slot
+    protected ValueType[] values = null;
+    protected int[] hashes = null; // cached hash of the key in each slot
+    protected int numElements = 0; // number of elements in the map
+
+    /**
+     * Creates an empty map whose capacity is the smallest power of two that
+     * is at least the requested capacity.
+     *
+     * @param capacity the minimum initial capacity of this map
+     * @throws IllegalArgumentException if capacity is not greater than zero
+     */
+    public ProbingHashtableMap(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero.");
+        }
+        int tableCapacity = Integer.highestOneBit(capacity);
+        if (tableCapacity < capacity)
+            tableCapacity *= 2;
+        allocate(tableCapacity);
+    }
+
+    /**
+     * Creates an empty map with a capacity of 64.
+     */
+    public ProbingHashtableMap() {
+        allocate(64);
+    }
+
+    // creates empty arrays of this capacity to store elements in
+    private void allocate(int tableCapacity) {
+        keys = (KeyType[]) new Object[tableCapacity];
+        values = (ValueType[]) new Object[tableCapacity];
+        hashes = new int[tableCapacity];
+    }
+
+    // spreads the high bits of key's hashCode into the low bits that are masked
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    // returns the slot holding key (with this hash), or -1 when key is not stored
+    private int findSlot(Object key, int hash) {
+        int mask = keys.length - 1;
+        for (int slot = hash & mask; keys[slot] != null; slot = (slot + 1) & mask)
+            if (hashes[slot] == hash && keys[slot].equals(key))
+                return slot;
+        return -1;
+    }
+
+    /**
+     * Adds a new key,value pair/mapping to this collection.
+     * @param key the key of the key,value pair
+     * @param value the value that key maps to
+     * @throws IllegalArgumentException if key already maps to a value
+     * @throws NullPointerException if key is null
+     */
+    @Override
+    public void put(KeyType key, ValueType value) throws IllegalArgumentException {
+        if (key == null) {
+            throw new NullPointerException("The key cannot be null.");
+        }
+        int hash = hash(key);
+        // a single probe both checks for the key and finds the free slot for it
+        int mask = keys.length - 1;
+        int slot = hash & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && keys[slot].equals(key))
+                throw new IllegalArgumentException("The key already maps to a value");
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        hashes[slot] = hash;
+        numElements++;
+        if (numElements >= MAX_LOAD_FACTOR * keys.length) {
+            resizeTable();
+        }
+    }
+
+    // doubles the capacity, moving each element into its slot in the new arrays
+    private void resizeTable() {
+        KeyType[] oldKeys = keys;
+        ValueType[] oldValues = values;
+        int[] oldHashes = hashes;
+        allocate(oldKeys.length * 2);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null)
+                continue;
+            int slot = oldHashes[i] & mask;
+            while (keys[slot] != null)
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+            hashes[slot] = oldHashes[i];
+        }
+    }
+
+    /**
+     * Checks whether a key maps to a value in this collection.
+     * @param key the key to check
+     * @return true if the key maps to a value, and false is the
+     *         key doesn't map to a value
+     */
+    @Override
+    public boolean containsKey(KeyType key) {
+        return findSlot(key, hash(key)) >= 0;
+    }
+
+    /**
+     * Retrieves the specific value that a key maps to.
+     * @param key the key to look up
+     * @return the value that key maps to
+     * @throws NoSuchElementException when key is not stored in this
+     *         collection
+     */
+    @Override
+    public ValueType get(KeyType key) throws NoSuchElementException {
+        int slot = findSlot(key, hash(key));
+        if (slot < 0) {
+            throw new NoSuchElementException("The key is not stored in the hash table");
+        }
+        return values[slot];
+    }
+
+    /**
+     * Remove the mapping for a key from this collection. Rather than leaving
+     * a marker in the emptied slot, later elements in the same probe run are
+     * shifted back, so lookups never have to probe past removed elements.
+     * @param key the key whose mapping to remove
+     * @return the value that the removed key mapped to
+     * @throws NoSuchElementException when key is not stored in this
+     *         collection
+     */
+    @Override
+    public ValueType remove(KeyType key) throws NoSuchElementException {
+        int slot = findSlot(key, hash(key));
+        if (slot < 0) {
+            throw new NoSuchElementException("The key is not stored in the hash table");
+        }
+        ValueType value = values[slot];
+        int mask = keys.length - 1;
+        int empty = slot;
+        for (int next = (slot + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+            // an element can fill the empty slot only if its own preferred slot
+            // does not lie (cyclically) after the empty slot
+            int preferred = hashes[next] & mask;
+            if (((next - preferred) & mask) >= ((next - empty) & mask)) {
+                keys[empty] = keys[next];
+                values[empty] = values[next];
+                hashes[empty] = hashes[next];
+                empty = next;
+            }
+        }
+        keys[empty] = null;
+        values[empty] = null;
+        numElements--;
+        return value;
+    }
+
+    /**
+     * Removes all key,value pairs from this collection.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = null;
+            values[i] = null;
+        }
+        numElements = 0;
+    }
+
+    /**
+     * Retrieves the number of keys stored in this collection.
+     * @return the number of keys stored in this collection
+     */
+    @Override
+    public int getSize() {
+        return numElements;
+    }
+
+    /**
+     * Retrieves this collection's capacity.
+     * @return the size of the underlying arrays for this collection
+     */
+    @Override
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Retrieves this collection's keys.
+     * @return a list of keys in the underlying array for this collection
+     */
+    @Override
+    public List<KeyType> getKeys() {
+        List<KeyType> keyList = new ArrayList<>(numElements);
+        for (KeyType key : keys) {
+            if (key != null) {
+                keyList.add(key);
+            }
+        }
+        return keyList;
+    }
+}
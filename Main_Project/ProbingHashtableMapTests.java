@@ -0,0 +1,66 @@
+import java.util.HashMap;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests ProbingHashtableMap, both on its own and against the
+ * results of a java.util.HashMap given the same operations.
+ */
+public class ProbingHashtableMapTests {
+
+    /**
+     * Test put, get, containsKey and remove, along with the exceptions that
+     * MapADT requires of them.
+     */
+    @Test
+    public void testPutGetRemove() {
+        ProbingHashtableMap<String, Integer> map = new ProbingHashtableMap<>(10);
+        Assertions.assertEquals(16, map.getCapacity());
+        map.put("one", 1);
+        map.put("two", 2);
+        Assertions.assertTrue(map.containsKey("one"));
+        Assertions.assertFalse(map.containsKey("three"));
+        Assertions.assertEquals(2, map.get("two"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> map.put("one", 3));
+        Assertions.assertThrows(NullPointerException.class, () -> map.put(null, 3));
+        Assertions.assertEquals(1, map.remove("one"));
+        Assertions.assertThrows(NoSuchElementException.class, () -> map.get("one"));
+        Assertions.assertThrows(NoSuchElementException.class, () -> map.remove("one"));
+        Assertions.assertEquals(1, map.getSize());
+        map.clear();
+        Assertions.assertEquals(0, map.getSize());
+        Assertions.assertFalse(map.containsKey("two"));
+    }
+
+    /**
+     * Test a long random sequence of puts and removes, with many colliding
+     * keys, against a java.util.HashMap. This covers resizing and shifting
+     * elements back into the slots that removals empty.
+     */
+    @Test
+    public void testAgainstHashMap() {
+        ProbingHashtableMap<Integer, Integer> map = new ProbingHashtableMap<>(4);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(400);
+        for (int i = 0; i < 20000; i++) {
+            // multiples of 64 all land in the same few slots
+            int key = random.nextInt(500) * (random.nextBoolean() ? 64 : 1);
+            if (expected.containsKey(key)) {
+                Assertions.assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                expected.put(key, i);
+                map.put(key, i);
+            }
+            Assertions.assertEquals(expected.size(), map.getSize());
+        }
+        for (int key = 0; key < 500 * 64; key++) {
+            Assertions.assertEquals(expected.containsKey(key), map.containsKey(key));
+            if (expected.containsKey(key))
+                Assertions.assertEquals(expected.get(key), map.get(key));
+        }
+        Assertions.assertEquals(expected.size(), map.getKeys().size());
+        Assertions.assertEquals(0, Integer.bitCount(map.getCapacity()) - 1);
+    }
+}
@@ -0,0 +1,183 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * This RouteCache keeps the shortest routes that were found most recently,
+ * so that a route that is asked for again can be returned without searching
+ * the graph. It holds at most a fixed number of routes, and when it is full,
+ * the route that has gone unused the longest is evicted (LRU) to make room.
+ *
+ * Every route is stored along with the version of the graph it was found in
+ * (see GraphADT.getVersion()). As soon as a lookup is made for a different
+ * version, the graph has changed since the stored routes were found, and so
+ * all of them are discarded. Routes that were not found (empty RouteResults)
+ * are cached just like any others.
+ *
+ * All methods are synchronized, so one cache can be shared by any number of
+ * threads. Cached RouteResults are shared by everyone who looks them up,
+ * which is safe since a RouteResult cannot be changed.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class RouteCache<NodeType> {
+
+    // the start and end node of a route, which together identify it
+    protected static class Key {
+        public final Object start;
+        public final Object end;
+
+        public Key(Object start, Object end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key))
+                return false;
+            Key key = (Key) other;
+            return Objects.equals(start, key.start) && Objects.equals(end, key.end);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(start, end);
+        }
+    }
+
+    // maximum number of routes held at once
+    protected final int capacity;
+    // cached routes, in order from least to most recently used
+    protected final LinkedHashMap<Key, RouteResult<NodeType>> routes;
+    // version of the graph that every cached route was found in
+    protected long graphVersion = 0;
+
+    protected long hits = 0;
+    protected long misses = 0;
+    protected long evictions = 0;
+    protected long invalidations = 0;
+
+    /**
+     * Creates an empty cache that holds up to capacity routes.
+     *
+     * @param capacity the largest number of routes to hold at once
+     * @throws IllegalArgumentException if capacity is less than one
+     */
+    public RouteCache(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("A RouteCache must hold at least one route.");
+        this.capacity = capacity;
+        // in access order, so that every lookup moves a route to the end
+        this.routes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, RouteResult<NodeType>> eldest) {
+                if (size() <= RouteCache.this.capacity)
+                    return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached route from start to end, if one was found in this
+     * version of the graph, and counts the lookup as a hit or a miss.
+     *
+     * @param start        the start node of the route
+     * @param end          the end node of the route
+     * @param graphVersion the current version of the graph
+     * @return the cached route, or null if there is none
+     */
+    public synchronized RouteResult<NodeType> get(NodeType start, NodeType end, long graphVersion) {
+        discardIfChanged(graphVersion);
+        RouteResult<NodeType> route = routes.get(new Key(start, end));
+        if (route == null)
+            misses++;
+        else
+            hits++;
+        return route;
+    }
+
+    /**
+     * Caches the route from start to end that was found in this version of
+     * the graph, evicting the least recently used route when full. Routes
+     * are only cached for the version of the graph that get() was last
+     * called with.
+     *
+     * @param start        the start node of the route
+     * @param end          the end node of the route
+     * @param graphVersion the version of the graph that route was found in
+     * @param route        the route to cache
+     */
+    public synchronized void put(NodeType start, NodeType end, long graphVersion,
+            RouteResult<NodeType> route) {
+        // skip routes found in a different version than the cached ones, which
+        // happens when the graph changes after get() and before the route is found
+        if (graphVersion == this.graphVersion)
+            routes.put(new Key(start, end), route);
+    }
+
+    // discards every cached route when the graph has changed since they were found
+    private void discardIfChanged(long graphVersion) {
+        if (graphVersion == this.graphVersion)
+            return;
+        if (!routes.isEmpty())
+            invalidations++;
+        routes.clear();
+        this.graphVersion = graphVersion;
+    }
+
+    /**
+     * Discards every cached route.
+     */
+    public synchronized void clear() {
+        routes.clear();
+    }
+
+    /**
+     * Returns the number of routes currently cached.
+     *
+     * @return the number of cached routes
+     */
+    public synchronized int size() {
+        return routes.size();
+    }
+
+    /**
+     * Returns the number of lookups that found a cached route.
+     *
+     * @return the number of hits so far
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that found no cached route.
+     *
+     * @return the number of misses so far
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of routes evicted to make room for newer ones.
+     *
+     * @return the number of evictions so far
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of times that all cached routes were discarded
+     * because the graph changed.
+     *
+     * @return the number of invalidations so far
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+}
@@ -0,0 +1,118 @@
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests the RouteCache, and how the Backend uses it to answer
+ * repeated shortest path requests.
+ */
+public class RouteCacheTests {
+
+    // creates a route through these locations with the given total cost
+    private static RouteResult<String> route(double cost, String... locations) {
+        return new RouteResult<>(List.of(locations), List.of(cost), cost);
+    }
+
+    /**
+     * Test that a full cache evicts the least recently used route, and counts
+     * hits, misses and evictions.
+     */
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        RouteCache<String> cache = new RouteCache<>(2);
+        RouteResult<String> ab = route(1, "A", "B");
+        RouteResult<String> bc = route(2, "B", "C");
+        Assertions.assertNull(cache.get("A", "B", 0));
+        cache.put("A", "B", 0, ab);
+        cache.put("B", "C", 0, bc);
+        // using A->B makes B->C the least recently used route
+        Assertions.assertSame(ab, cache.get("A", "B", 0));
+        cache.put("C", "D", 0, route(3, "C", "D"));
+        Assertions.assertNull(cache.get("B", "C", 0));
+        Assertions.assertSame(ab, cache.get("A", "B", 0));
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(2, cache.getHits());
+        Assertions.assertEquals(2, cache.getMisses());
+        Assertions.assertEquals(1, cache.getEvictions());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new RouteCache<String>(0));
+    }
+
+    /**
+     * Test that routes are discarded once a lookup is made for another
+     * version of the graph, and that routes found in an older version are
+     * not cached.
+     */
+    @Test
+    public void testGraphVersionInvalidation() {
+        RouteCache<String> cache = new RouteCache<>(4);
+        cache.get("A", "B", 1);
+        cache.put("A", "B", 1, route(1, "A", "B"));
+        Assertions.assertNotNull(cache.get("A", "B", 1));
+        Assertions.assertNull(cache.get("A", "B", 2));
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals(1, cache.getInvalidations());
+        cache.put("A", "B", 1, route(1, "A", "B"));
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    /**
+     * Test that the Backend answers a repeated request from its cache, and
+     * searches again after an edge of the graph changes or new graph data is
+     * loaded.
+     */
+    @Test
+    public void testBackendRouteCache() throws IOException {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        Backend<String> backend = new Backend<>(graph);
+        backend.loadGraphData("campus.dot");
+        RouteCache<String> cache = backend.getRouteCache();
+
+        RouteResult<String> first = backend.findRouteOnShortestPath("Bascom Hall", "Van Hise Hall");
+        Assertions.assertSame(first, backend.findRouteOnShortestPath("Bascom Hall", "Van Hise Hall"));
+        Assertions.assertEquals(first.getNodes(),
+                backend.findLocationsOnShortestPath("Bascom Hall", "Van Hise Hall"));
+        Assertions.assertEquals(2, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+
+        // a much quicker edge changes the shortest route
+        graph.insertEdge("Bascom Hall", "Van Hise Hall", 1.0);
+        RouteResult<String> changed = backend.findRouteOnShortestPath("Bascom Hall", "Van Hise Hall");
+        Assertions.assertEquals(List.of("Bascom Hall", "Van Hise Hall"), changed.getNodes());
+        Assertions.assertEquals(1, cache.getInvalidations());
+
+        backend.loadGraphData("campus.dot");
+        Assertions.assertEquals(first.getNodes(),
+                backend.findLocationsOnShortestPath("Bascom Hall", "Van Hise Hall"));
+        Assertions.assertEquals(2, cache.getInvalidations());
+    }
+
+    /**
+     * Test that changing the lists returned for a cached route does not
+     * change what later requests for the same route get.
+     */
+    @Test
+    public void testCachedRoutesCannotBeChanged() throws IOException {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        Backend<String> backend = new Backend<>(graph);
+        backend.loadGraphData("campus.dot");
+        RouteResult<String> route = backend.findRouteOnShortestPath("Bascom Hall", "Van Hise Hall");
+        List<String> expectedNodes = List.copyOf(route.getNodes());
+        List<Double> expectedTimes = List.copyOf(route.getLegWeights());
+
+        List<String> nodes = backend.findLocationsOnShortestPath("Bascom Hall", "Van Hise Hall");
+        nodes.clear();
+        nodes.add("Bogus");
+        backend.findTimesOnShortestPath("Bascom Hall", "Van Hise Hall").clear();
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> route.getNodes().clear());
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> route.getLegWeights().add(1.0));
+
+        Assertions.assertEquals(expectedNodes,
+                backend.findLocationsOnShortestPath("Bascom Hall", "Van Hise Hall"));
+        Assertions.assertEquals(expectedTimes,
+                backend.findTimesOnShortestPath("Bascom Hall", "Van Hise Hall"));
+        Assertions.assertEquals(expectedNodes,
+                backend.findRouteOnShortestPath("Bascom Hall", "Van Hise Hall").getNodes());
+    }
+}
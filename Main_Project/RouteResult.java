@@ -0,0 +1,77 @@
+import java.util.List;
+
+/**
+ * A RouteResult describes one shortest path through a graph: the data from
+ * each node along that path (in order from start to end), the weight of each
+ * leg (edge) between consecutive nodes on it, and the total cost of the path.
+ * All three are produced together by a single shortest path search. A route
+ * cannot be changed once it is created, so one route can be shared, such as
+ * by a RouteCache, by any number of callers.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class RouteResult<NodeType> {
+
+    protected List<NodeType> nodes;
+    protected List<Double> legWeights;
+    protected double totalCost;
+
+    /**
+     * Creates a route through the provided nodes. Both lists are copied, so
+     * later changes to them do not change this route.
+     *
+     * @param nodes      data from each node along the path, start to end
+     * @param legWeights weight of the edge between each two consecutive nodes,
+     *                   so it holds one less value than nodes
+     * @param totalCost  the sum of legWeights, as computed by the search
+     */
+    public RouteResult(List<NodeType> nodes, List<Double> legWeights, double totalCost) {
+        this.nodes = List.copyOf(nodes);
+        this.legWeights = List.copyOf(legWeights);
+        this.totalCost = totalCost;
+    }
+
+    /**
+     * Creates an empty route, which describes a path that could not be found.
+     */
+    public RouteResult() {
+        this(List.of(), List.of(), 0.0);
+    }
+
+    /**
+     * Returns the data from each node along this route.
+     *
+     * @return unmodifiable list of node data, ordered from start to end
+     */
+    public List<NodeType> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the weight of each leg of this route.
+     *
+     * @return unmodifiable list of edge weights between each two consecutive
+     *         nodes
+     */
+    public List<Double> getLegWeights() {
+        return legWeights;
+    }
+
+    /**
+     * Returns the total cost of this route.
+     *
+     * @return the sum of this route's leg weights
+     */
+    public double getTotalCost() {
+        return totalCost;
+    }
+
+    /**
+     * Checks whether this route is empty, because no path was found.
+     *
+     * @return true if this route contains no nodes, false otherwise
+     */
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+}
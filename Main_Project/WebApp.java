@@ -5,13 +5,37 @@ import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.Headers;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.BufferedWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.io.ByteArrayOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 import java.io.File;
-import java.util.Scanner;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.TreeMap;
+import java.util.Arrays;
+import java.util.Base64;
+import java.net.URLEncoder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
 import java.util.stream.Stream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Instructions for running this WebApp alongside working Frontend, Backend,
@@ -32,7 +56,12 @@ public class WebApp {
 				// expects the port number as a command line argument to this program
 				// or if a non-numeric argument is passed treat this like the query
 				// part of a requst URI and display response through standard out
-				if(args.length != 1) {
+				// optional further arguments are, in order: the graph file to serve,
+				// which may be a dot file or a snapshot written by GraphSnapshot; the
+				// number of requests to answer at once, or "virtual" to answer each
+				// on a thread of its own; the connection backlog; and the number of
+				// searches to compute at once
+				if(args.length < 1 || args.length > 5) {
 						throw new IllegalArgumentException("You must pass a command line" +
 						    " argument representing the port that this servers should be" +
 								" bound to when running this program.  Or a Query string.");
@@ -48,55 +77,566 @@ public class WebApp {
 						return;
 				}
 				
+				String filename = args.length >= 2 ? args[1] : "./campus.dot";
+				int threadCount = args.length < 3 ? Runtime.getRuntime().availableProcessors()
+				    : args[2].equals("virtual") ? THREAD_PER_REQUEST : Integer.parseInt(args[2]);
+				int backlog = args.length < 4 ? DEFAULT_BACKLOG : Integer.parseInt(args[3]);
+				int maxSearches = args.length < 5 ? Integer.MAX_VALUE : Integer.parseInt(args[4]);
+				startServer(portNumber, filename, threadCount, backlog, maxSearches);
+    }
+
+    // A ServedGraph holds what every request is answered from after one load
+    // of the graph data: the frontend, and the backend behind it (which the
+    // json api answers from directly), along with a stamp that tells this
+    // load apart from every other one, in this run of the server or any
+    // other, so that responses from other loads are never mistaken for its
+    private static class ServedGraph {
+				public final FrontendInterface frontend;
+				public final BackendInterface backend;
+				public final String stamp;
+
+				public ServedGraph(BackendInterface backend, int loadCount) {
+						this.backend = backend;
+						this.frontend = new Frontend(backend);
+						this.stamp = Long.toString(System.currentTimeMillis(), 36) + "." + loadCount;
+				}
+    }
+
+    // graph that is shared by every request this server answers: it is
+    // loaded once before the server starts, and is only ever replaced as a
+    // whole by reloadGraph()
+    private static volatile ServedGraph servedGraph = null;
+    // number of times that graph data has been loaded by reloadGraph()
+    private static volatile int graphLoadCount = 0;
+
+    // threadCount that makes startServer answer every request on a thread of
+    // its own: a virtual thread when this version of Java has them, or else a
+    // daemon thread from a pool that grows as needed
+    public static final int THREAD_PER_REQUEST = 0;
+    // number of incoming connections that may wait to be accepted, by default
+    public static final int DEFAULT_BACKLOG = 8;
+    // memory that the served graph may use to keep shortest path trees in
+    public static final long PATH_TREE_BUDGET_BYTES = 64L << 20;
+    // largest served graph whose shortest paths are all precomputed when it
+    // is loaded: a table for this many nodes takes 64MB
+    public static final int DISTANCE_TABLE_MAX_NODES = 2048;
+    // number of seconds that browsers and caches may reuse a response for
+    // without asking whether it changed: it only changes once the graph is
+    // reloaded, and after that, it may be served this long from a cache
+    public static final int CACHE_MAX_AGE_SECONDS = 60;
+    // most travel times that one request to /api/matrix may ask for
+    public static final int MAX_MATRIX_CELLS = 1 << 20;
+    // most bytes of form encoded arguments that one POST request may send
+    public static final int MAX_POST_BYTES = 1 << 20;
+
+    // loads the graph from filename, and then configures and starts a server
+    // on this port that answers every request using that one loaded graph,
+    // with one worker thread per available processor
+    public static HttpServer startServer(int portNumber, String filename) throws IOException {
+				return startServer(portNumber, filename,
+				    Runtime.getRuntime().availableProcessors());
+    }
+
+    // loads the graph from filename, and then configures and starts a server
+    // on this port that answers up to threadCount requests at once, all using
+    // that one loaded graph; the graph is only ever read while answering
+    // requests, and every search keeps its state to itself, so requests can
+    // safely share it
+    public static HttpServer startServer(int portNumber, String filename, int threadCount)
+		    throws IOException {
+				return startServer(portNumber, filename, threadCount, DEFAULT_BACKLOG,
+				    Integer.MAX_VALUE);
+    }
+
+    // loads the graph from filename, and then configures and starts a server
+    // as above, which queues up to backlog connections waiting to be accepted,
+    // and computes at most maxSearches paths or reachable sets at once; other
+    // requests wait for one of those computations to finish before starting
+    // theirs, so that a flood of requests cannot overload the processors
+    public static HttpServer startServer(int portNumber, String filename, int threadCount,
+		    int backlog, int maxSearches) throws IOException {
+				if(threadCount < THREAD_PER_REQUEST)
+						throw new IllegalArgumentException("A server needs at least one thread.");
+				if(maxSearches < 1)
+						throw new IllegalArgumentException("A server needs to allow at least " +
+						    "one search at a time.");
+				// load graph data and the html template before accepting any requests
+				reloadGraph(filename);
+				pageTemplate();
+
+				// send each response as soon as it is written, rather than letting
+				// the headers wait (by Nagle's algorithm) for the client to
+				// acknowledge them, which adds about 40 ms to every kept-alive
+				// request; this has to be set before the first server is created
+				if(System.getProperty("sun.net.httpserver.nodelay") == null)
+						System.setProperty("sun.net.httpserver.nodelay", "true");
 				// configure and start server on this port, responding in this way
 				InetSocketAddress address = new InetSocketAddress(portNumber);
-				HttpServer server = HttpServer.create(address,8);
+				HttpServer server = HttpServer.create(address,backlog);
 				HttpContext context = server.createContext("/");
-				context.setHandler( WebApp::requestHandler );
+				Semaphore searchPermits = new Semaphore(maxSearches);
+				context.setHandler( exchange -> requestHandler(exchange, searchPermits) );
+				// json api for machine clients, which skips rendering any html
+				server.createContext("/api/locations").setHandler(
+				    exchange -> apiHandler(exchange, null, WebApp::answerLocations) );
+				server.createContext("/api/route").setHandler(
+				    exchange -> apiHandler(exchange, searchPermits, WebApp::answerRoute) );
+				server.createContext("/api/reachable").setHandler(
+				    exchange -> apiHandler(exchange, searchPermits, WebApp::answerReachable) );
+				server.createContext("/api/matrix").setHandler(
+				    exchange -> apiHandler(exchange, searchPermits, WebApp::answerMatrix) );
+				server.setExecutor(createExecutor(threadCount));
 				System.out.println("Starting Campus Navigator Server...");
 				server.start();
+				return server;
+    }
+
+    // creates the executor that answers requests, as described for startServer;
+    // virtual threads are looked up by reflection, since they are only part of
+    // Java 21 and later, and this program also runs on older versions
+    private static ExecutorService createExecutor(int threadCount) {
+				// worker threads are daemons, so they never keep the program running
+				AtomicInteger workerCount = new AtomicInteger();
+				ThreadFactory workers = task -> {
+						Thread worker = new Thread(task, "webapp-worker-" + workerCount.incrementAndGet());
+						worker.setDaemon(true);
+						return worker;
+				};
+				if(threadCount != THREAD_PER_REQUEST)
+						return Executors.newFixedThreadPool(threadCount, workers);
+				try {
+						return (ExecutorService) Executors.class
+						    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+				} catch(ReflectiveOperationException | UnsupportedOperationException e) {
+						// no virtual threads here (or only as a disabled preview feature)
+						System.out.println("Virtual threads are not available, so each request " +
+						    "is answered on a pooled platform thread instead.");
+						return Executors.newCachedThreadPool(workers);
+				}
+    }
+
+    // loads graph data from filename into a new frontend, and then swaps it in
+    // for the shared one; requests that are already being answered finish with
+    // the frontend they started with
+    public static synchronized void reloadGraph(String filename) throws IOException {
+				long startTime = System.nanoTime();
+				BackendInterface backend = createWorkingBackend(filename, true);
+				graphLoadCount++;
+				servedGraph = new ServedGraph(backend, graphLoadCount);
+				System.out.println("Loaded graph data from " + filename + " in " +
+				    (System.nanoTime() - startTime) / 1_000_000 + " ms");
+    }
+
+    // returns the frontend currently shared by all requests
+    public static FrontendInterface getSharedFrontend() {
+				return servedGraph.frontend;
+    }
+
+    // returns the backend currently shared by all requests
+    public static BackendInterface getSharedBackend() {
+				return servedGraph.backend;
     }
 
-    // http request handler handler for the context "/"
-    public static void requestHandler(HttpExchange exchange) {
+    // returns the number of times graph data has been loaded by reloadGraph()
+    public static int getGraphLoadCount() {
+				return graphLoadCount;
+    }
+
+    // http request handler handler for the context "/", which only computes a
+    // response while holding one of these searchPermits
+    public static void requestHandler(HttpExchange exchange, Semaphore searchPermits) {
 				try {
 						// extract the query (part of URI after?) part of URI
 						String query = exchange.getRequestURI().getQuery();	    
 						System.out.println("Received Request with query: " + query);
-						// extract argument key-value pairs from request query
+						// extract argument key-value pairs from request query, which is
+						// split while still encoded, so that locations containing & or =
+						// (such as "Water Science & Engineering Laboratory") stay whole
 						Map<String,String> keyValuePairs = parseQuery(
-																					exchange.getRequestURI().getQuery());
+																					exchange.getRequestURI().getRawQuery());
 						System.out.println("Query includes args: "+keyValuePairs);
 	    
-						// create backend and frontend objects to respond to this request
-						FrontendInterface frontend = createWorkingFrontend("./campus.dot");
+						// respond using the frontend that was loaded at startup
+						ServedGraph served = servedGraph;
+						FrontendInterface frontend = served.frontend;
+						// a requester that already has this page is told so, without
+						// searching the graph again
+						String etag = entityTag(served, "/", listArguments(keyValuePairs));
+						if(notModified(exchange, etag))
+								return;
 						// compute answer to user's requested problem based on query args:
-						String response = generateResponseHTML(keyValuePairs,frontend);
-						// generate HTML prompts for user for make next requests
-						String prompts = generatePromptHTML(frontend);
-						// compose response and prompts into a complete html template
-						String html = composeHTML(response,prompts);
-		
-						// complete exchange response to send this html back to requester
-						byte[] bytes = html.getBytes();
-						exchange.sendResponseHeaders(200,bytes.length);
-						OutputStream out = exchange.getResponseBody();
-						out.write(bytes);
-						out.close();
+						String response;
+						searchPermits.acquire();
+						try {
+								response = generateResponseHTML(keyValuePairs,frontend);
+						} finally {
+								searchPermits.release();
+						}
+						// HTML prompts for user for make next requests, which are the
+						// same every time, and so are only generated and compressed once
+						CachedPrompts prompts = promptsOf(frontend);
+
+						// complete exchange response by sending the template back to the
+						// requester with the response and prompts in place, a chunk at a
+						// time (as a length of 0 asks for), without composing one string;
+						// compressed as gzip when the requester accepts that, in which
+						// case only the response is compressed here, between the other
+						// pieces of the page that were compressed ahead of time
+						PageTemplate template = pageTemplate();
+						boolean gzip = acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+						byte[] responseBytes = response.getBytes(StandardCharsets.UTF_8);
+						exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+						exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+						if(gzip)
+								exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+						setCachingHeaders(exchange, etag);
+						exchange.sendResponseHeaders(200,0);
+						try(OutputStream out = exchange.getResponseBody()) {
+								template.writeTo(out, responseBytes, prompts.piece, gzip);
+						}
 	    
 				// unless something goes wrong, in which case report problem
 				} catch (Exception e) {
 						System.out.println("Exception Thrown: "+e.toString());
 						e.printStackTrace();
 						// attempt to send 500 Server Error Response to client
-						try { exchange.sendResponseHeaders(500,-1); }
+						try {
+								setNoStoreHeaders(exchange);
+								exchange.sendResponseHeaders(500,-1);
+						}
 						catch(IOException i){} // do nothing when this fails
 				}
     }
 
-    // reads key value pairs from the query string of a URI into a map
-    private static Map<String,String> parseQuery(String query) {
-				HashMap<String,String> map = new HashMap<>();
+    // A JSONBody writes the body of a json response to a stream, from results
+    // that were already computed, so that nothing can fail but writing
+    private interface JSONBody {
+				void writeTo(Writer out) throws IOException;
+    }
+
+    // A JSONEndpoint answers one request to a json api endpoint from its
+    // arguments (all of the values passed for each key) and the backend,
+    // with the body to send back; it throws an IllegalArgumentException for
+    // arguments it cannot use, and a NoSuchElementException for locations or
+    // paths it cannot find
+    private interface JSONEndpoint {
+				JSONBody answer(Map<String,List<String>> arguments, BackendInterface backend);
+    }
+
+    // http request handler for the json api endpoints, which takes arguments
+    // from the query of a GET request, or from the form encoded body of a
+    // POST request (for longer lists of locations, up to MAX_POST_BYTES); an
+    // endpoint that searches the graph only answers while holding one of
+    // these searchPermits, or else searchPermits is null. The response is
+    // written straight to the connection in chunks, rather than composed as
+    // one string first
+    private static void apiHandler(HttpExchange exchange, Semaphore searchPermits,
+		    JSONEndpoint endpoint) {
+				try {
+						String query = exchange.getRequestURI().getRawQuery();
+						if(exchange.getRequestMethod().equals("POST")) {
+								// reads at most one byte past the cap, to tell whether the
+								// body is longer than that
+								byte[] body = exchange.getRequestBody().readNBytes(MAX_POST_BYTES + 1);
+								if(body.length > MAX_POST_BYTES) {
+										sendJSONError(exchange, 413, "Send at most " + MAX_POST_BYTES +
+										    " bytes of arguments.");
+										return;
+								}
+								query = new String(body, StandardCharsets.UTF_8);
+						}
+						// answer from the backend that was loaded at startup
+						ServedGraph served = servedGraph;
+						BackendInterface backend = served.backend;
+						JSONBody json;
+						String etag;
+						try {
+								Map<String,List<String>> arguments = parseQueryLists(query);
+								// a requester that already has this answer is told so,
+								// without searching the graph again
+								etag = entityTag(served, exchange.getHttpContext().getPath(),
+								    arguments);
+								if(notModified(exchange, etag))
+										return;
+								if(searchPermits != null) searchPermits.acquire();
+								try {
+										json = endpoint.answer(arguments, backend);
+								} finally {
+										if(searchPermits != null) searchPermits.release();
+								}
+						} catch(IllegalArgumentException e) {
+								sendJSONError(exchange, 400, e.getMessage());
+								return;
+						} catch(NoSuchElementException e) {
+								sendJSONError(exchange, 404, e.getMessage());
+								return;
+						}
+
+						boolean gzip = acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+						exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+						exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+						if(gzip)
+								exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+						setCachingHeaders(exchange, etag);
+						// a length of 0 sends the body in chunks, as it is written (and
+						// compressed, when the requester accepts gzip)
+						exchange.sendResponseHeaders(200,0);
+						OutputStream body = exchange.getResponseBody();
+						if(gzip)
+								body = new GZIPOutputStream(body, 8192);
+						try(Writer out = new BufferedWriter(new OutputStreamWriter(body,
+						    StandardCharsets.UTF_8))) {
+								json.writeTo(out);
+						}
+
+				// unless something goes wrong, in which case report problem
+				} catch (Exception e) {
+						System.out.println("Exception Thrown: "+e.toString());
+						e.printStackTrace();
+						// attempt to send 500 Server Error Response to client
+						try {
+								setNoStoreHeaders(exchange);
+								exchange.sendResponseHeaders(500,-1);
+						}
+						catch(IOException i){} // do nothing when this fails
+				}
+    }
+
+    // answers /api/locations with every location in the graph, as json:
+    // {"locations":[...]}
+    private static JSONBody answerLocations(Map<String,List<String>> arguments,
+		    BackendInterface backend) {
+				List<String> locations = backend.getListOfAllLocations();
+				return out -> {
+						out.write("{\"locations\":");
+						writeJSONList(out, locations);
+						out.write('}');
+				};
+    }
+
+    // answers /api/route?start=...&end=... with the shortest route between
+    // those locations, as json: {"start":...,"end":...,"locations":[...],
+    // "times":[...],"totalTime":...}, where times holds the walking time in
+    // seconds between each two locations along the route
+    private static JSONBody answerRoute(Map<String,List<String>> arguments,
+		    BackendInterface backend) {
+				String start = singleArgument(arguments, "start");
+				String end = singleArgument(arguments, "end");
+				RouteResult<String> route = backend.findRouteOnShortestPath(start, end);
+				if(route.isEmpty())
+						throw new NoSuchElementException("There is no path from " + start +
+						    " to " + end + ".");
+				return out -> {
+						out.write("{\"start\":");
+						writeJSONString(out, start);
+						out.write(",\"end\":");
+						writeJSONString(out, end);
+						out.write(",\"locations\":");
+						writeJSONList(out, route.getNodes());
+						out.write(",\"times\":[");
+						List<Double> times = route.getLegWeights();
+						for(int i = 0; i < times.size(); i++) {
+								if(i > 0) out.write(',');
+								out.write(Double.toString(times.get(i)));
+						}
+						out.write("],\"totalTime\":" + route.getTotalCost() + "}");
+				};
+    }
+
+    // answers /api/reachable?from=...&time=... with the locations that can be
+    // reached from that location within that many seconds, as json:
+    // {"from":...,"time":...,"locations":[...]}
+    private static JSONBody answerReachable(Map<String,List<String>> arguments,
+		    BackendInterface backend) {
+				String from = singleArgument(arguments, "from");
+				double time;
+				try {
+						time = Double.parseDouble(singleArgument(arguments, "time"));
+				} catch(NumberFormatException e) {
+						throw new IllegalArgumentException("The time must be a number of seconds.");
+				}
+				// Infinity and NaN parse, but cannot be written as json numbers
+				if(!Double.isFinite(time) || time < 0)
+						throw new IllegalArgumentException("The time must be a finite, " +
+						    "non-negative number of seconds.");
+				List<String> locations = backend.getReachableFromWithin(from, time);
+				return out -> {
+						out.write("{\"from\":");
+						writeJSONString(out, from);
+						out.write(",\"time\":" + time + ",\"locations\":");
+						writeJSONList(out, locations);
+						out.write('}');
+				};
+    }
+
+    // answers /api/matrix with the walking time from every source to every
+    // target location, as json: {"sources":[...],"targets":[...],
+    // "times":[[...],...]}, where times[i][j] is the time from sources[i] to
+    // targets[j], or null without a path. Each location is passed as its own
+    // source=... or target=... argument, since location names may contain
+    // commas
+    private static JSONBody answerMatrix(Map<String,List<String>> arguments,
+		    BackendInterface backend) {
+				List<String> sources = arguments.getOrDefault("source", List.of());
+				List<String> targets = arguments.getOrDefault("target", List.of());
+				if(sources.isEmpty() || targets.isEmpty())
+						throw new IllegalArgumentException("Pass at least one source and one " +
+						    "target location.");
+				if((long) sources.size() * targets.size() > MAX_MATRIX_CELLS)
+						throw new IllegalArgumentException("Ask for at most " + MAX_MATRIX_CELLS +
+						    " travel times at once.");
+				// the request holds a single search permit, so it searches on a
+				// single thread rather than on every processor
+				double[][] times = backend.computeTravelTimeMatrix(sources, targets, 1);
+				return out -> {
+						out.write("{\"sources\":");
+						writeJSONList(out, sources);
+						out.write(",\"targets\":");
+						writeJSONList(out, targets);
+						out.write(",\"times\":[");
+						for(int i = 0; i < times.length; i++) {
+								out.write(i == 0 ? "[" : ",[");
+								for(int j = 0; j < times[i].length; j++) {
+										if(j > 0) out.write(',');
+										// json has no infinity, so unreachable targets are null
+										if(times[i][j] == Double.POSITIVE_INFINITY) out.write("null");
+										else out.write(Double.toString(times[i][j]));
+								}
+								out.write(']');
+						}
+						out.write("]}");
+				};
+    }
+
+    // returns the weak ETag of the response to a request for path with these
+    // arguments. Responses only change when the graph does, so it is made of
+    // the stamp of the served graph, the version of the graph, and a digest
+    // of path and the arguments in a normal order: sorted by key, with the
+    // values of each key kept in the order given (which is the order they
+    // are answered in). Pages and json compressed as gzip or not get the
+    // same ETag, as responses already vary by Accept-Encoding
+    private static String entityTag(ServedGraph served, String path,
+		    Map<String,List<String>> arguments) throws NoSuchAlgorithmException {
+				StringBuilder normalized = new StringBuilder(path).append('?');
+				for(Map.Entry<String,List<String>> argument : new TreeMap<>(arguments).entrySet())
+						for(String value : argument.getValue())
+								normalized.append(URLEncoder.encode(argument.getKey(), StandardCharsets.UTF_8))
+								    .append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8))
+								    .append('&');
+				byte[] digest = MessageDigest.getInstance("SHA-256")
+				    .digest(normalized.toString().getBytes(StandardCharsets.UTF_8));
+				return "W/\"" + served.stamp + "." + served.backend.getGraphVersion() + "." +
+				    Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) +
+				    "\"";
+    }
+
+    // answers a GET request with 304 Not Modified, and returns true, when its
+    // If-None-Match header lists etag (or *), compared weakly; or else
+    // returns false, and the response is still to be sent. Other requests,
+    // such as POST requests, are never cached
+    private static boolean notModified(HttpExchange exchange, String etag) throws IOException {
+				String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+				if(!exchange.getRequestMethod().equals("GET") || ifNoneMatch == null)
+						return false;
+				// weak comparison ignores whether either tag is marked weak
+				String opaqueTag = etag.substring(2);
+				for(String tag : ifNoneMatch.split(",")) {
+						tag = tag.trim();
+						if(tag.startsWith("W/"))
+								tag = tag.substring(2);
+						if(tag.equals("*") || tag.equals(opaqueTag)) {
+								setCachingHeaders(exchange, etag);
+								exchange.sendResponseHeaders(304,-1);
+								exchange.close();
+								return true;
+						}
+				}
+				return false;
+    }
+
+    // lets browsers and caches keep the successful response to a GET request
+    // that is about to be sent, and revalidate it by its etag
+    private static void setCachingHeaders(HttpExchange exchange, String etag) {
+				if(!exchange.getRequestMethod().equals("GET"))
+						return;
+				Headers headers = exchange.getResponseHeaders();
+				headers.set("ETag", etag);
+				headers.set("Cache-Control", "public, max-age=" + CACHE_MAX_AGE_SECONDS);
+				headers.set("Vary", "Accept-Encoding");
+    }
+
+    // keeps browsers and caches from storing the error response that is
+    // about to be sent, so that it is asked for again
+    private static void setNoStoreHeaders(HttpExchange exchange) {
+				exchange.getResponseHeaders().remove("ETag");
+				exchange.getResponseHeaders().set("Cache-Control", "no-store");
+    }
+
+    // returns these key value pairs as a map from each key to its one value
+    private static Map<String,List<String>> listArguments(Map<String,String> keyValuePairs) {
+				Map<String,List<String>> arguments = new HashMap<>();
+				for(Map.Entry<String,String> pair : keyValuePairs.entrySet())
+						arguments.put(pair.getKey(), List.of(pair.getValue()));
+				return arguments;
+    }
+
+    // returns the one value passed for key in these arguments
+    private static String singleArgument(Map<String,List<String>> arguments, String key) {
+				List<String> values = arguments.get(key);
+				if(values == null || values.size() != 1)
+						throw new IllegalArgumentException("Pass exactly one " + key + "=... argument.");
+				return values.get(0);
+    }
+
+    // sends a json object that reports this error message back to the
+    // requester with this status code
+    private static void sendJSONError(HttpExchange exchange, int status, String message)
+		    throws IOException {
+				StringWriter json = new StringWriter();
+				json.write("{\"error\":");
+				writeJSONString(json, message);
+				json.write('}');
+				byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+				exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+				setNoStoreHeaders(exchange);
+				exchange.sendResponseHeaders(status,bytes.length);
+				OutputStream out = exchange.getResponseBody();
+				out.write(bytes);
+				out.close();
+    }
+
+    // writes these strings to out as a json array
+    private static void writeJSONList(Writer out, List<String> values) throws IOException {
+				out.write('[');
+				for(int i = 0; i < values.size(); i++) {
+						if(i > 0) out.write(',');
+						writeJSONString(out, values.get(i));
+				}
+				out.write(']');
+    }
+
+    // writes value to out as a quoted json string, escaping the characters
+    // that json strings cannot hold as they are
+    private static void writeJSONString(Writer out, String value) throws IOException {
+				out.write('"');
+				for(int i = 0; i < value.length(); i++) {
+						char c = value.charAt(i);
+						if(c == '"' || c == '\\') {
+								out.write('\\');
+								out.write(c);
+						} else if(c < 0x20) {
+								out.write(String.format("\\u%04x", (int) c));
+						} else {
+								out.write(c);
+						}
+				}
+				out.write('"');
+    }
+
+    // reads key value pairs from the query string of a URI into a map from
+    // each key to all of the values it was given, in order
+    private static Map<String,List<String>> parseQueryLists(String query) {
+				HashMap<String,List<String>> map = new HashMap<>();
 				if(query != null && query.contains("="))
 						Stream.of(query.split("&")).forEach(arg -> {
 										String[] pair = arg.split("=");
@@ -106,18 +646,72 @@ public class WebApp {
 														"single = delimiter.");
 										String key = URLDecoder.decode(pair[0], StandardCharsets.UTF_8);
 										String value = URLDecoder.decode(pair[1], StandardCharsets.UTF_8);
-										map.put(key, value);
+										map.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
 								});
 				return map;
     }
 
-    // creates a working Frontend, Backend, DijkstraGraph, and HashtableMap
+    // reads key value pairs from the query string of a URI into a map, in
+    // which a key given more than once keeps its last value
+    private static Map<String,String> parseQuery(String query) {
+				HashMap<String,String> map = new HashMap<>();
+				parseQueryLists(query).forEach((key, values) ->
+								map.put(key, values.get(values.size() - 1)));
+				return map;
+    }
+
+    // creates a working Frontend, Backend, DijkstraGraph, and HashtableMap,
+    // and then serves the frontend from a CompactGraph frozen from that graph,
+    // to answer a single request
     private static FrontendInterface createWorkingFrontend(String filename) throws IOException {
-				GraphADT<String,Double> graph = new DijkstraGraph<>();
-				BackendInterface backend = new Backend(graph);
-				backend.loadGraphData(filename);			
-				FrontendInterface frontend = new Frontend(backend);
-				return frontend;
+				return new Frontend(createWorkingBackend(filename, false));
+    }
+
+    // creates a working Backend, DijkstraGraph, and HashtableMap, and then
+    // answers from a CompactGraph frozen from that graph; or when filename is
+    // a snapshot written by GraphSnapshot, answers from the CompactGraph
+    // mapped from that file without parsing any dot file. A hierarchy written
+    // by ContractionHierarchy for the same graph is picked up from the file
+    // of the same name ending in .hierarchy. Only a backend that will answer
+    // many requests (when longRunning is true) precomputes or keeps any
+    // shortest paths, which would cost more than a single request saves
+    private static BackendInterface createWorkingBackend(String filename, boolean longRunning)
+		    throws IOException {
+				CompactGraph<String> compact;
+				if(filename.endsWith(".snapshot")) {
+						compact = GraphSnapshot.open(filename);
+				} else {
+						DijkstraGraph<String,Double> graph = new DijkstraGraph<>();
+						new Backend<String>(graph).loadGraphData(filename);
+						compact = graph.freeze();
+				}
+				if(!longRunning)
+						return new Backend<String>(compact);
+				// precompute every shortest path of a small graph; or else search the
+				// contraction hierarchy saved next to a large graph, if there is one;
+				// or else keep the shortest path trees from recent start locations,
+				// since visitors tend to ask for several routes from the same place
+				String hierarchyFile = filename.replaceFirst("\\.[^./\\\\]*$", "") + ".hierarchy";
+				if(!compact.buildDistanceTable(DISTANCE_TABLE_MAX_NODES,
+				    Runtime.getRuntime().availableProcessors())) {
+						CompactGraph<String> hierarchy = null;
+						if(new File(hierarchyFile).exists()) {
+								// a hierarchy that no longer matches the graph is skipped,
+								// rather than keeping the server from starting
+								try {
+										hierarchy = ContractionHierarchy.open(compact, hierarchyFile);
+								} catch(IOException e) {
+										System.out.println("Not using " + hierarchyFile + ": " +
+										    e.getMessage());
+								}
+						}
+						if(hierarchy != null)
+								compact = hierarchy;
+						else
+								compact.setPathTreeBudget(PATH_TREE_BUDGET_BYTES);
+				}
+				// answer requests from a compact read-only snapshot of the loaded graph
+				return new Backend<String>(compact);
     }
 
     // creates the html response for the kind of question requeted (if any)
@@ -142,6 +736,133 @@ public class WebApp {
 				return response;
     }
 
+    // A CachedPrompts holds the prompts generated by one frontend, encoded
+    // as they are, and compressed once the first gzip response needs them
+    private static class CachedPrompts {
+				public final FrontendInterface frontend;
+				public final DeflatedPiece piece;
+
+				public CachedPrompts(FrontendInterface frontend) {
+						this.frontend = frontend;
+						piece = new DeflatedPiece(generatePromptHTML(frontend)
+						    .getBytes(StandardCharsets.UTF_8), Deflater.BEST_COMPRESSION);
+				}
+    }
+
+    // prompts of the frontend that most recently asked for them
+    private static volatile CachedPrompts cachedPrompts = null;
+
+    // returns the prompts of frontend, which are only generated again once
+    // a different frontend (with a newly loaded graph) asks for them
+    private static CachedPrompts promptsOf(FrontendInterface frontend) {
+				CachedPrompts prompts = cachedPrompts;
+				if(prompts == null || prompts.frontend != frontend)
+						cachedPrompts = prompts = new CachedPrompts(frontend);
+				return prompts;
+    }
+
+    // returns whether a requester that sent this Accept-Encoding header (or
+    // null, without one) accepts gzip encoded responses: it must list gzip,
+    // or else *, without a q value of 0
+    private static boolean acceptsGzip(String acceptEncoding) {
+				if(acceptEncoding == null)
+						return false;
+				boolean anyAccepted = false;
+				for(String coding : acceptEncoding.split(",")) {
+						String[] parameters = coding.split(";");
+						String name = parameters[0].trim().toLowerCase();
+						double quality = 1;
+						for(int i = 1; i < parameters.length; i++) {
+								String parameter = parameters[i].trim();
+								if(parameter.startsWith("q=")) {
+										try {
+												quality = Double.parseDouble(parameter.substring(2));
+										} catch(NumberFormatException e) {
+												quality = 0;
+										}
+								}
+						}
+						if(name.equals("gzip") || name.equals("x-gzip"))
+								return quality > 0;
+						if(name.equals("*"))
+								anyAccepted = quality > 0;
+				}
+				return anyAccepted;
+    }
+
+    // A DeflatedPiece is a piece of a page, along with its bytes compressed
+    // into deflate blocks on their own: they refer to no bytes before the
+    // piece, and end on a byte boundary without being marked as the last
+    // block. So pieces that were compressed separately, some ahead of time,
+    // can be sent one after another as a single deflate stream, which every
+    // client decompresses completely (unlike several gzip members in a row,
+    // of which some clients only decompress the first). The bytes are only
+    // compressed the first time a gzip response needs them, so pages that
+    // are never sent compressed (such as cgi responses) never pay for it
+    private static class DeflatedPiece {
+				public final byte[] bytes;
+				private final int level;
+				private volatile byte[] deflated = null;
+
+				public DeflatedPiece(byte[] bytes, int level) {
+						this.bytes = bytes;
+						this.level = level;
+				}
+
+				// returns the compressed bytes of this piece; two threads may both
+				// compress them the first time, which is harmless
+				public byte[] deflated() {
+						byte[] result = deflated;
+						if(result == null)
+								deflated = result = deflate(bytes, level);
+						return result;
+				}
+
+				// compresses bytes at level into deflate blocks on their own
+				private static byte[] deflate(byte[] bytes, int level) {
+						Deflater deflater = new Deflater(level, true);
+						try {
+								deflater.setInput(bytes);
+								ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 64);
+								byte[] buffer = new byte[4096];
+								// a full flush ends the blocks on a byte boundary, and keeps
+								// them from being marked as the last
+								int length;
+								do {
+										length = deflater.deflate(buffer, 0, buffer.length, Deflater.FULL_FLUSH);
+										out.write(buffer, 0, length);
+								} while(length == buffer.length);
+								return out.toByteArray();
+						} finally {
+								deflater.end();
+						}
+				}
+    }
+
+    // gzip header with no file name or time, compressed by deflate
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    // last deflate block, which is empty (and uses the fixed Huffman codes)
+    private static final byte[] LAST_DEFLATE_BLOCK = {3, 0};
+
+    // writes these pieces to out, in order, as a single gzip member
+    private static void writeGzip(OutputStream out, DeflatedPiece... pieces) throws IOException {
+				out.write(GZIP_HEADER);
+				CRC32 crc = new CRC32();
+				int size = 0;
+				for(DeflatedPiece piece : pieces) {
+						out.write(piece.deflated());
+						crc.update(piece.bytes);
+						size += piece.bytes.length;
+				}
+				out.write(LAST_DEFLATE_BLOCK);
+				// the trailer holds the crc and size (modulo 2^32) in little endian
+				int value = (int) crc.getValue();
+				for(int i = 0; i < 8; i++) {
+						if(i == 4) value = size;
+						out.write(value >>> (8 * (i % 4)));
+				}
+    }
+
     // generate separate div sections with a prompt for each kind of request
     private static String generatePromptHTML(FrontendInterface frontend) {
 				String firstPrompt = "<div id=\"firstPrompt\">" +
@@ -151,18 +872,79 @@ public class WebApp {
 				return firstPrompt + secondPrompt;
     }
 
-    // compose reponse with prompts inside a complete html tree
-    private static String composeHTML(String response, String prompts) throws IOException {
-				// read contents of template file into html string
-				String html = "";
-				Scanner in = new Scanner(new File("template.html"));
-				while(in.hasNextLine()) html += in.nextLine() + "\n";
+    // A PageTemplate holds the page that every html response is based on,
+    // split once around its two placeholders into the encoded bytes that
+    // come before, between, and after them, so that each response is only
+    // written piece by piece rather than searched for the placeholders. Each
+    // of those pieces is also compressed once, by the first gzip encoded
+    // response
+    private static class PageTemplate {
+				private static final String RESPONSE_PLACEHOLDER = "<!-- RESPONSE GOES HERE -->";
+				private static final String PROMPTS_PLACEHOLDER = "<!-- PROMPTS GO HERE -->";
+
+				// pieces of the template, with the placeholders left out
+				private final DeflatedPiece[] segments = new DeflatedPiece[3];
+				// whether the response placeholder comes before the prompts one
+				private final boolean responseFirst;
+
+				// reads the template from filename, one line at a time as before
+				public PageTemplate(String filename) throws IOException {
+						StringBuilder html = new StringBuilder();
+						for(String line : Files.readAllLines(Paths.get(filename), StandardCharsets.UTF_8))
+								html.append(line).append('\n');
+						int response = html.indexOf(RESPONSE_PLACEHOLDER);
+						int prompts = html.indexOf(PROMPTS_PLACEHOLDER);
+						if(response < 0 || prompts < 0)
+								throw new IOException(filename + " needs both a " + RESPONSE_PLACEHOLDER +
+								    " and a " + PROMPTS_PLACEHOLDER + " placeholder.");
+						responseFirst = response < prompts;
+						int first = Math.min(response, prompts);
+						int second = Math.max(response, prompts);
+						int firstEnd = first + (responseFirst ? RESPONSE_PLACEHOLDER
+						    : PROMPTS_PLACEHOLDER).length();
+						int secondEnd = second + (responseFirst ? PROMPTS_PLACEHOLDER
+						    : RESPONSE_PLACEHOLDER).length();
+						String[] pieces = {html.substring(0, first), html.substring(firstEnd, second),
+						    html.substring(secondEnd)};
+						for(int i = 0; i < segments.length; i++)
+								segments[i] = new DeflatedPiece(pieces[i].getBytes(StandardCharsets.UTF_8),
+								    Deflater.BEST_COMPRESSION);
+				}
+
+				// writes the template to out, with the encoded response and prompts
+				// in place of the placeholders; compressed as gzip when gzip is true,
+				// in which case only the response still needs to be compressed
+				public void writeTo(OutputStream out, byte[] response, DeflatedPiece prompts,
+				    boolean gzip) throws IOException {
+						if(gzip) {
+								// responses are compressed on every request, so as fast as
+								// possible, which costs about half as much time as the default
+								// level for a few more bytes
+								DeflatedPiece deflatedResponse = new DeflatedPiece(response,
+								    Deflater.BEST_SPEED);
+								writeGzip(out, segments[0], responseFirst ? deflatedResponse : prompts,
+								    segments[1], responseFirst ? prompts : deflatedResponse, segments[2]);
+						} else {
+								out.write(segments[0].bytes);
+								out.write(responseFirst ? response : prompts.bytes);
+								out.write(segments[1].bytes);
+								out.write(responseFirst ? prompts.bytes : response);
+								out.write(segments[2].bytes);
+						}
+				}
+    }
+
+    // template that every html response is written from, which is read from
+    // template.html by the first request (or by startServer) and kept
+    private static volatile PageTemplate pageTemplate = null;
 
-				// replace placeholders for response and prompts
-				html = html.replaceFirst("<!-- RESPONSE GOES HERE -->",response);
-				html = html.replaceFirst("<!-- PROMPTS GO HERE -->",prompts);
-	
-				return html;
+    // returns the template that html responses are written from
+    private static PageTemplate pageTemplate() throws IOException {
+				PageTemplate template = pageTemplate;
+				// two threads may both read the file the first time, which is harmless
+				if(template == null)
+						pageTemplate = template = new PageTemplate("template.html");
+				return template;
     }
 
 		// Since we cannot run a public webserver on the department's linux
@@ -177,12 +959,11 @@ public class WebApp {
 						FrontendInterface frontend = createWorkingFrontend("./campus.dot");
 						// compute answer to user's requested problem based on query args:
 						String response = generateResponseHTML(keyValuePairs,frontend);
-						// generate HTML prompts for user for make next requests
-						String prompts = generatePromptHTML(frontend);
-						// compose response and prompts into a complete html template
-						String html = composeHTML(response,prompts);
-		
-						System.out.println(html);
+						// write response and the prompts for user for make next requests
+						// into the html template
+						pageTemplate().writeTo(System.out, response.getBytes(StandardCharsets.UTF_8),
+						    promptsOf(frontend).piece, false);
+						System.out.println();
 						
 				// unless something goes wrong, in which case report problem
 				} catch (Exception e) {
@@ -0,0 +1,448 @@
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests the WebApp by starting a server on a free local port and
+ * sending real http requests to it.
+ */
+public class WebAppTests {
+
+    // sends a GET request for path to the server on this port, and returns the
+    // body of its response
+    private static String fetch(int port, String path) throws IOException {
+        URL url = new URL("http://localhost:" + port + path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        Assertions.assertEquals(200, connection.getResponseCode());
+        try (InputStream in = connection.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Test that two requests are both answered from the graph that was loaded
+     * when the server started, rather than loading the graph once per request.
+     */
+    @Test
+    public void testRequestsShareLoadedGraph() throws IOException {
+        HttpServer server = WebApp.startServer(0, "./campus.dot");
+        try {
+            int port = server.getAddress().getPort();
+            int loadCount = WebApp.getGraphLoadCount();
+            FrontendInterface frontend = WebApp.getSharedFrontend();
+
+            String first = fetch(port, "/?start=Bascom+Hall&end=Van+Hise+Hall");
+            String second = fetch(port, "/?from=Van+Hise+Hall&time=300");
+
+            Assertions.assertTrue(first.contains("<p>Total travel time: 274.9 seconds.</p>"));
+            Assertions.assertTrue(second.contains("<li>Bascom Hall</li>"));
+            // neither request loaded the graph again, or replaced the frontend
+            Assertions.assertEquals(loadCount, WebApp.getGraphLoadCount());
+            Assertions.assertSame(frontend, WebApp.getSharedFrontend());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Test that locations whose names contain characters that separate query
+     * arguments, once they are decoded, can still be requested.
+     */
+    @Test
+    public void testLocationWithAmpersand() throws IOException {
+        HttpServer server = WebApp.startServer(0, "./campus.dot");
+        try {
+            String response = fetch(server.getAddress().getPort(),
+                    "/?start=Water+Science+%26+Engineering+Laboratory&end=Brat+Stand");
+            Assertions.assertTrue(response.contains("<li>Water Science & Engineering Laboratory</li>"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Test that a server started from a snapshot of campus.dot answers
+     * requests exactly as one started from campus.dot itself does.
+     */
+    @Test
+    public void testServeSnapshot() throws IOException {
+        String path = "/?start=Bascom+Hall&end=Van+Hise+Hall";
+        String fromDot;
+        HttpServer server = WebApp.startServer(0, "./campus.dot");
+        try {
+            fromDot = fetch(server.getAddress().getPort(), path);
+        } finally {
+            server.stop(0);
+        }
+
+        File snapshot = File.createTempFile("campus", ".snapshot");
+        snapshot.deleteOnExit();
+        GraphSnapshot.main(new String[] {"campus.dot", snapshot.getPath()});
+        server = WebApp.startServer(0, snapshot.getPath());
+        try {
+            Assertions.assertEquals(fromDot, fetch(server.getAddress().getPort(), path));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Test that many requests answered at once by a server with several
+     * worker threads get exactly the responses that the same requests get
+     * when they are sent one at a time.
+     */
+    @Test
+    public void testConcurrentRequestsMatchSequential() throws Exception {
+        assertConcurrentRequestsMatchSequential(WebApp.startServer(0, "./campus.dot", 4));
+    }
+
+    /**
+     * Test the same with a server that answers each request on a thread of
+     * its own, but only computes one path at a time.
+     */
+    @Test
+    public void testThreadPerRequestWithAdmissionLimit() throws Exception {
+        assertConcurrentRequestsMatchSequential(WebApp.startServer(0, "./campus.dot",
+                WebApp.THREAD_PER_REQUEST, 64, 1));
+    }
+
+    // checks that concurrent requests to this server get the same responses as
+    // the same requests sent one at a time, and then stops the server
+    private static void assertConcurrentRequestsMatchSequential(HttpServer server) throws Exception {
+        try {
+            int port = server.getAddress().getPort();
+            List<String> locations = new Backend<String>(campusGraph()).getListOfAllLocations();
+            Random random = new Random(400);
+            List<String> paths = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                String start = URLEncoder.encode(locations.get(random.nextInt(locations.size())),
+                        StandardCharsets.UTF_8);
+                String end = URLEncoder.encode(locations.get(random.nextInt(locations.size())),
+                        StandardCharsets.UTF_8);
+                paths.add(i % 2 == 0 ? "/?start=" + start + "&end=" + end
+                        : "/?from=" + start + "&time=" + (60 + random.nextInt(600)));
+            }
+            List<String> expected = new ArrayList<>();
+            for (String path : paths)
+                expected.add(fetch(port, path));
+
+            ExecutorService clients = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<String>> responses = new ArrayList<>();
+                for (int round = 0; round < 5; round++)
+                    for (String path : paths)
+                        responses.add(clients.submit(() -> fetch(port, path)));
+                for (int i = 0; i < responses.size(); i++)
+                    Assertions.assertEquals(expected.get(i % paths.size()), responses.get(i).get());
+            } finally {
+                clients.shutdown();
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Test that /api/matrix answers with the same walking times as the
+     * backend finds one route at a time, and that it reports unknown
+     * locations and missing arguments as errors.
+     */
+    @Test
+    public void testTravelTimeMatrix() throws IOException {
+        HttpServer server = WebApp.startServer(0, "./campus.dot");
+        try {
+            int port = server.getAddress().getPort();
+            String json = fetch(port, "/api/matrix?source=Bascom+Hall&source=Brat+Stand" +
+                    "&target=Van+Hise+Hall&target=Water+Science+%26+Engineering+Laboratory");
+            Assertions.assertTrue(json.startsWith("{\"sources\":[\"Bascom Hall\",\"Brat Stand\"]," +
+                    "\"targets\":[\"Van Hise Hall\",\"Water Science & Engineering Laboratory\"]," +
+                    "\"times\":[[274.9,"));
+            BackendInterface backend = new Backend<String>(campusGraph());
+            double[][] times = backend.computeTravelTimeMatrix(List.of("Bascom Hall", "Brat Stand"),
+                    List.of("Van Hise Hall", "Water Science & Engineering Laboratory"));
+            Assertions.assertEquals(274.9, times[0][0], 1e-9);
+            Assertions.assertTrue(json.endsWith("[" + times[1][0] + "," + times[1][1] + "]]}"));
+
+            Assertions.assertEquals(404, status(port, "/api/matrix?source=Nowhere&target=Brat+Stand"));
+            Assertions.assertEquals(400, status(port, "/api/matrix?source=Bascom+Hall"));
+
+            // longer lists of locations may be posted, up to a limit
+            HttpURLConnection posted = post(port, "/api/matrix", "source=Bascom+Hall&source=" +
+                    "Brat+Stand&target=Van+Hise+Hall&target=Water+Science+%26+Engineering+Laboratory");
+            Assertions.assertEquals(200, posted.getResponseCode());
+            Assertions.assertEquals(json, new String(posted.getInputStream().readAllBytes(),
+                    StandardCharsets.UTF_8));
+            posted.disconnect();
+            HttpURLConnection tooLong = post(port, "/api/matrix", "source=Bascom+Hall&target=" +
+                    "Brat+Stand".repeat(WebApp.MAX_POST_BYTES / 10));
+            Assertions.assertEquals(413, tooLong.getResponseCode());
+            tooLong.disconnect();
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Test that html pages are sent in chunks, and hold all of template.html
+     * with the response and prompts in place of its two placeholders.
+     */
+    @Test
+    public void testPageFromTemplate() throws IOException {
+        HttpServer server = WebApp.startServer(0, "./campus.dot");
+        try {
+            int port = server.getAddress().getPort();
+            String page = fetch(port, "/?start=Bascom+Hall&end=Van+Hise+Hall");
+            String template = String.join("\n", Files.readAllLines(Paths.get("template.html"))) + "\n";
+            int response = template.indexOf("<!-- RESPONSE GOES HERE -->");
+            int prompts = template.indexOf("<!-- PROMPTS GO HERE -->");
+            Assertions.assertTrue(page.startsWith(template.substring(0, response) + "<div id=\"response\">"));
+            Assertions.assertTrue(page.endsWith(template.substring(prompts + "<!-- PROMPTS GO HERE -->".length())));
+            Assertions.assertTrue(page.contains("<p>Total travel time: 274.9 seconds.</p>"));
+            Assertions.assertTrue(page.contains("<div id=\"firstPrompt\">"));
+            Assertions.assertFalse(page.contains("GOES HERE") || page.contains("GO HERE"));
+
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" +
+                    port + "/").openConnection();
+            Assertions.assertEquals("chunked", connection.getHeaderField("Transfer-Encoding"));
+            Assertions.assertEquals("text/html; charset=utf-8", connection.getHeaderField("Content-Type"));
+            connection.disconnect();
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Test that pages and json are compressed as gzip for requesters that
+     * accept it, and decompress to exactly what other requesters get.
+     */
+    @Test
+    public void testGzipResponses() throws Exception {
+        HttpServer server = WebApp.startServer(0, "./campus.dot");
+        try {
+            int port = server.getAddress().getPort();
+            for (String path : List.of("/?start=Bascom+Hall&end=Van+Hise+Hall",
+                    "/?from=Van+Hise+Hall&time=600", "/", "/api/locations")) {
+                String plain = fetch(port, path);
+                HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" +
+                        port + path).openConnection();
+                connection.setRequestProperty("Accept-Encoding", "deflate, gzip;q=0.8");
+                Assertions.assertEquals("gzip", connection.getHeaderField("Content-Encoding"));
+                Assertions.assertEquals("Accept-Encoding", connection.getHeaderField("Vary"));
+                byte[] compressed;
+                try (InputStream in = connection.getInputStream()) {
+                    compressed = in.readAllBytes();
+                } finally {
+                    connection.disconnect();
+                }
+                Assertions.assertTrue(compressed.length < plain.getBytes(StandardCharsets.UTF_8).length);
+                try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                    Assertions.assertEquals(plain, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+                // all of it is one gzip member, after which only its 8 byte trailer follows
+                Inflater inflater = new Inflater(true);
+                inflater.setInput(compressed, 10, compressed.length - 10);
+                byte[] buffer = new byte[4096];
+                while (!inflater.finished() && !inflater.needsInput())
+                    inflater.inflate(buffer);
+                Assertions.assertTrue(inflater.finished());
+                Assertions.assertEquals(8, inflater.getRemaining());
+                inflater.end();
+            }
+
+            // requesters that refuse gzip, or do not mention it, get plain responses
+            for (String accept : List.of("gzip;q=0", "*;q=0", "identity, br")) {
+                HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" +
+                        port + "/").openConnection();
+                connection.setRequestProperty("Accept-Encoding", accept);
+                Assertions.assertNull(connection.getHeaderField("Content-Encoding"));
+                connection.disconnect();
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Test that responses carry an ETag made from the graph and the query in
+     * a normal order, that requests which already have that ETag are
+     * answered with 304 Not Modified, and that reloading the graph gives
+     * every response a new ETag.
+     */
+    @Test
+    public void testConditionalRequests() throws IOException {
+        HttpServer server = WebApp.startServer(0, "./campus.dot");
+        try {
+            int port = server.getAddress().getPort();
+            for (String[] paths : new String[][] {
+                    {"/?start=Bascom+Hall&end=Van+Hise+Hall", "/?end=Van+Hise+Hall&start=Bascom%20Hall"},
+                    {"/api/route?start=Bascom+Hall&end=Van+Hise+Hall",
+                     "/api/route?end=Van+Hise+Hall&start=Bascom+Hall"}}) {
+                HttpURLConnection first = open(port, paths[0], null);
+                Assertions.assertEquals(200, first.getResponseCode());
+                String etag = first.getHeaderField("ETag");
+                Assertions.assertTrue(etag.startsWith("W/\""));
+                Assertions.assertEquals("public, max-age=" + WebApp.CACHE_MAX_AGE_SECONDS,
+                        first.getHeaderField("Cache-Control"));
+                first.disconnect();
+
+                // the same query in another order or encoding has the same ETag
+                HttpURLConnection again = open(port, paths[1], "\"other\", " + etag);
+                Assertions.assertEquals(304, again.getResponseCode());
+                Assertions.assertEquals(etag, again.getHeaderField("ETag"));
+                again.disconnect();
+                HttpURLConnection strong = open(port, paths[1], etag.substring(2));
+                Assertions.assertEquals(304, strong.getResponseCode());
+                strong.disconnect();
+
+                // other queries have other ETags
+                HttpURLConnection other = open(port, paths[0].replace("Bascom+Hall", "Brat+Stand"),
+                        etag);
+                Assertions.assertEquals(200, other.getResponseCode());
+                Assertions.assertNotEquals(etag, other.getHeaderField("ETag"));
+                other.disconnect();
+
+                WebApp.reloadGraph("./campus.dot");
+                HttpURLConnection reloaded = open(port, paths[0], etag);
+                Assertions.assertEquals(200, reloaded.getResponseCode());
+                Assertions.assertNotEquals(etag, reloaded.getHeaderField("ETag"));
+                reloaded.disconnect();
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Test that error responses carry no ETag and ask not to be stored, so
+     * that browsers and caches ask for them again.
+     */
+    @Test
+    public void testErrorsAreNotCached() throws IOException {
+        HttpServer server = WebApp.startServer(0, "./campus.dot");
+        try {
+            int port = server.getAddress().getPort();
+            int[] statuses = {500, 404, 400};
+            String[] paths = {"/?start=Brat+Stand&end", "/api/route?start=Nowhere&end=Brat+Stand",
+                    "/api/reachable?from=Brat+Stand&time=soon"};
+            for (int i = 0; i < paths.length; i++) {
+                HttpURLConnection error = open(port, paths[i], null);
+                Assertions.assertEquals(statuses[i], error.getResponseCode());
+                Assertions.assertNull(error.getHeaderField("ETag"));
+                Assertions.assertEquals("no-store", error.getHeaderField("Cache-Control"));
+                error.disconnect();
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // opens a GET request for path to the server on this port, which sends
+    // ifNoneMatch as its If-None-Match header, unless that is null
+    private static HttpURLConnection open(int port, String path, String ifNoneMatch)
+            throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path)
+                .openConnection();
+        if (ifNoneMatch != null)
+            connection.setRequestProperty("If-None-Match", ifNoneMatch);
+        return connection;
+    }
+
+    /**
+     * Test that the json api answers with the same locations, routes, and
+     * reachable locations as the backend, in chunks, and reports what it
+     * cannot answer as errors.
+     */
+    @Test
+    public void testJSONEndpoints() throws IOException {
+        HttpServer server = WebApp.startServer(0, "./campus.dot");
+        try {
+            int port = server.getAddress().getPort();
+            BackendInterface backend = new Backend<String>(campusGraph());
+            String locations = fetch(port, "/api/locations");
+            Assertions.assertTrue(locations.startsWith("{\"locations\":[\""));
+            Assertions.assertEquals(backend.getListOfAllLocations().size(),
+                    locations.split("\",\"").length);
+            Assertions.assertTrue(locations.contains("\"Water Science & Engineering Laboratory\""));
+
+            RouteResult<String> route = backend.findRouteOnShortestPath("Bascom Hall", "Van Hise Hall");
+            String times = route.getLegWeights().toString().replace(" ", "");
+            Assertions.assertEquals("{\"start\":\"Bascom Hall\",\"end\":\"Van Hise Hall\"," +
+                    "\"locations\":[\"" + String.join("\",\"", route.getNodes()) + "\"]," +
+                    "\"times\":" + times + ",\"totalTime\":" + route.getTotalCost() + "}",
+                    fetch(port, "/api/route?start=Bascom+Hall&end=Van+Hise+Hall"));
+
+            String reachable = fetch(port, "/api/reachable?from=Van+Hise+Hall&time=300");
+            Assertions.assertEquals("{\"from\":\"Van Hise Hall\",\"time\":300.0,\"locations\":[\"" +
+                    String.join("\",\"", backend.getReachableFromWithin("Van Hise Hall", 300)) +
+                    "\"]}", reachable);
+
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" +
+                    port + "/api/locations").openConnection();
+            Assertions.assertEquals("chunked", connection.getHeaderField("Transfer-Encoding"));
+            Assertions.assertEquals("application/json; charset=utf-8",
+                    connection.getHeaderField("Content-Type"));
+            connection.disconnect();
+
+            Assertions.assertEquals(404, status(port, "/api/route?start=Nowhere&end=Brat+Stand"));
+            Assertions.assertEquals(404, status(port, "/api/reachable?from=Nowhere&time=300"));
+            Assertions.assertEquals(400, status(port, "/api/reachable?from=Brat+Stand&time=soon"));
+            Assertions.assertEquals(400, status(port, "/api/reachable?from=Brat+Stand&time=Infinity"));
+            Assertions.assertEquals(400, status(port, "/api/reachable?from=Brat+Stand&time=NaN"));
+            Assertions.assertEquals(400, status(port, "/api/reachable?from=Brat+Stand&time=-1"));
+            Assertions.assertEquals(400, status(port, "/api/route?start=Brat+Stand"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // sends a POST request for path to the server on this port, with body as
+    // its form encoded arguments
+    private static HttpURLConnection post(int port, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path)
+                .openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        connection.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        return connection;
+    }
+
+    // sends a GET request for path to the server on this port, and returns the
+    // status code of its response
+    private static int status(int port, String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path)
+                .openConnection();
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    // loads campus.dot into a new graph
+    private static DijkstraGraph<String, Double> campusGraph() throws IOException {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        new Backend<String>(graph).loadGraphData("campus.dot");
+        return graph;
+    }
+}
@@ -0,0 +1,109 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmarks for the hot paths of the campus navigator: loading
+ * campus.dot, shortest path queries, reachability queries, and the map that
+ * graphs store their nodes in. Query benchmarks run against campus.dot and
+ * against synthetic grids of 10k, 100k and 1M locations written by
+ * GraphGenerator; other topologies can be selected with, for example,
+ * "-p graph=scalefree-100000". Run them from the Main_Project directory with
+ * "make runBenchmarks".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class CampusBenchmarks {
+
+    // creates the default package workload that these benchmarks call into
+    static Workload createWorkload() throws Exception {
+        return (Workload) Class.forName("CampusWorkload").getConstructor().newInstance();
+    }
+
+    // state for benchmarks that only need a workload, without a loaded graph
+    @State(Scope.Benchmark)
+    public static class LoadState {
+        Workload workload;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            workload = createWorkload();
+        }
+    }
+
+    // state for benchmarks that query a loaded graph
+    @State(Scope.Benchmark)
+    public static class GraphState {
+        @Param({"campus", "grid-10000", "grid-100000", "grid-1000000"})
+        String graph;
+
+        @Param({"linked", "compact"})
+        String graphType;
+
+        Workload workload;
+        int query = 0;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            workload = createWorkload();
+            workload.loadGraph(graph, graphType);
+        }
+    }
+
+    // state for benchmarks of map operations
+    @State(Scope.Benchmark)
+    public static class MapState {
+        @Param({"1000", "100000"})
+        int size;
+
+        @Param({"chained", "probing"})
+        String mapType;
+
+        Workload workload;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            workload = createWorkload();
+            workload.prepareMap(size, mapType);
+        }
+    }
+
+    // state for reachability benchmarks, which also vary the time budget
+    @State(Scope.Benchmark)
+    public static class BudgetState {
+        @Param({"60", "300", "900"})
+        double travelTime;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object loadCampusGraph(LoadState state) throws Exception {
+        return state.workload.loadCampusGraph();
+    }
+
+    @Benchmark
+    public Object shortestPath(GraphState state) {
+        return state.workload.shortestPath(state.query++);
+    }
+
+    @Benchmark
+    public Object reachableFromWithin(GraphState state, BudgetState budget) {
+        return state.workload.reachableFromWithin(state.query++, budget.travelTime);
+    }
+
+    @Benchmark
+    public long mapPutGetRemove(MapState state) {
+        return state.workload.mapPutGetRemove();
+    }
+}
@@ -0,0 +1,124 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Random;
+import benchmarks.Workload;
+
+/**
+ * Implements the operations measured by benchmarks.CampusBenchmarks. This
+ * class is in the default package so that it can use the campus navigator's
+ * classes directly; see benchmarks.Workload for why that is needed.
+ */
+public class CampusWorkload implements Workload {
+
+    // number of random queries prepared for each graph, a power of two
+    private static final int QUERY_COUNT = 1024;
+    // most start locations tried while looking for one that reaches at least
+    // half of the graph, which the queries are then drawn from
+    private static final int REACHABLE_TRIES = 8;
+
+    private GraphADT<String, Double> graph;
+    private Backend<String> backend;
+    private String[] starts = new String[QUERY_COUNT];
+    private String[] ends = new String[QUERY_COUNT];
+    private String[] keys;
+    private String mapType;
+
+    /**
+     * Returns a dot file holding the synthetic graph named by topology-N,
+     * written by GraphGenerator into the temporary directory. The file is
+     * only generated the first time it is needed, since the same name always
+     * generates the same graph.
+     *
+     * @param graphName name of the graph, such as "grid-10000"
+     * @return the dot file holding that graph
+     * @throws IOException if the file cannot be written
+     */
+    static File syntheticGraphFile(String graphName) throws IOException {
+        File file = new File(System.getProperty("java.io.tmpdir"), "campus-benchmark-" + graphName + ".dot");
+        if (!file.exists()) {
+            int split = graphName.lastIndexOf('-');
+            File partial = new File(file.getPath() + ".tmp");
+            try (Writer out = new BufferedWriter(new FileWriter(partial), 1 << 16)) {
+                GraphGenerator.generate(graphName.substring(0, split),
+                        Integer.parseInt(graphName.substring(split + 1)), 400, out);
+            }
+            partial.renameTo(file);
+        }
+        return file;
+    }
+
+    @Override
+    public void loadGraph(String graphName, String graphType) throws Exception {
+        String filename = graphName.equals("campus") ? "campus.dot"
+                : syntheticGraphFile(graphName).getPath();
+        DijkstraGraph<String, Double> loaded = new DijkstraGraph<>();
+        new Backend<String>(loaded).loadGraphData(filename);
+        graph = graphType.equals("compact") ? loaded.freeze() : loaded;
+        backend = new Backend<>(graph);
+
+        // every query joins two locations that can reach each other, so that
+        // shortestPath measures searches rather than exceptions on graphs that
+        // fall apart into groups (such as geometric ones): both ends are drawn
+        // from the locations reachable from one start, which is chosen to
+        // reach at least half of the graph when a few tries find one that does
+        List<String> locations = graph.getAllNodes();
+        Random random = new Random(400);
+        List<String> reachable = List.of();
+        for (int tries = 0; tries < REACHABLE_TRIES && 2 * reachable.size() < locations.size(); tries++) {
+            String from = locations.get(random.nextInt(locations.size()));
+            List<String> candidates = graph.shortestPathCostsWithin(from, Double.POSITIVE_INFINITY)
+                    .getKeys();
+            if (candidates.size() > reachable.size())
+                reachable = candidates;
+        }
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            starts[i] = reachable.get(random.nextInt(reachable.size()));
+            ends[i] = reachable.get(random.nextInt(reachable.size()));
+        }
+    }
+
+    @Override
+    public Object loadCampusGraph() throws Exception {
+        DijkstraGraph<String, Double> loaded = new DijkstraGraph<>();
+        new Backend<String>(loaded).loadGraphData("campus.dot");
+        return loaded;
+    }
+
+    @Override
+    public Object shortestPath(int query) {
+        int i = query & (QUERY_COUNT - 1);
+        return graph.shortestPathData(starts[i], ends[i]);
+    }
+
+    @Override
+    public Object reachableFromWithin(int query, double travelTime) {
+        return backend.getReachableFromWithin(starts[query & (QUERY_COUNT - 1)], travelTime);
+    }
+
+    @Override
+    public void prepareMap(int size, String mapType) {
+        this.mapType = mapType;
+        keys = new String[size];
+        Random random = new Random(400);
+        for (int i = 0; i < size; i++)
+            keys[i] = "Location " + random.nextInt() + " " + i;
+    }
+
+    @Override
+    public long mapPutGetRemove() {
+        MapADT<String, Integer> map = mapType.equals("probing") ? new ProbingHashtableMap<>()
+                : new HashtableMap<>();
+        long checksum = 0;
+        for (int i = 0; i < keys.length; i++)
+            map.put(keys[i], i);
+        for (String key : keys)
+            checksum += map.get(key);
+        for (String key : keys)
+            checksum += map.remove(key);
+        return checksum;
+    }
+}
@@ -0,0 +1,68 @@
+package benchmarks;
+
+/**
+ * This interface lists the operations that CampusBenchmarks measures. JMH
+ * cannot generate benchmarks for classes in the default package, and classes
+ * in a named package cannot refer to the default package classes that make up
+ * the campus navigator. So CampusWorkload, which lives in the default package,
+ * implements this interface, and CampusBenchmarks loads it by name once while
+ * setting up. Every measured call after that is an ordinary interface call.
+ */
+public interface Workload {
+
+    /**
+     * Loads the graph that the query operations below run against, along
+     * with a fixed, seeded list of random queries over its locations.
+     *
+     * @param graphName "campus" for campus.dot, or "topology-N" for a graph
+     *                  of N locations written by GraphGenerator, where
+     *                  topology is grid, geometric or scalefree
+     * @param graphType "linked" to query the DijkstraGraph directly, or
+     *                  "compact" to query a CompactGraph frozen from it
+     * @throws Exception if the graph cannot be loaded
+     */
+    public void loadGraph(String graphName, String graphType) throws Exception;
+
+    /**
+     * Loads campus.dot into a new, empty graph through Backend.loadGraphData.
+     *
+     * @return the loaded graph, so that the load cannot be optimized away
+     * @throws Exception if campus.dot cannot be read
+     */
+    public Object loadCampusGraph() throws Exception;
+
+    /**
+     * Finds the shortest path between the locations of one random query.
+     *
+     * @param query index of the random query to answer
+     * @return the locations along that shortest path
+     */
+    public Object shortestPath(int query);
+
+    /**
+     * Finds the locations reachable from the start location of one random
+     * query through Backend.getReachableFromWithin.
+     *
+     * @param query      index of the random query to answer
+     * @param travelTime the largest number of seconds a location may be away
+     * @return the reachable locations
+     */
+    public Object reachableFromWithin(int query, double travelTime);
+
+    /**
+     * Creates the keys that the map operation below puts, gets and removes.
+     *
+     * @param size    number of keys to create
+     * @param mapType "chained" for HashtableMap or "probing" for
+     *                ProbingHashtableMap
+     */
+    public void prepareMap(int size, String mapType);
+
+    /**
+     * Puts every prepared key into a new map, gets each of them back, and
+     * then removes them all again.
+     *
+     * @return a checksum of the values that were read
+     */
+    public long mapPutGetRemove();
+}